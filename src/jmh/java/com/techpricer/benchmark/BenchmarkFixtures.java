@@ -0,0 +1,64 @@
+package com.techpricer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.model.GlobalConfig;
+import com.techpricer.model.Product;
+import com.techpricer.model.ProfitRule;
+import com.techpricer.repository.GlobalConfigRepository;
+import com.techpricer.repository.ProductRepository;
+import com.techpricer.repository.ProfitRuleRepository;
+import com.techpricer.service.ProductSearchIndex;
+import com.techpricer.service.ProductService;
+import com.techpricer.service.ProfitRuleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Arma servicios reales sobre repositorios stub (sin base de datos) para los
+ * benchmarks. Los mocks son stubOnly para que Mockito no retenga las
+ * invocaciones entre iteraciones.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static ProductService productService(List<Product> catalog, List<ProfitRule> rules, double globalMarkup) {
+        ProductRepository productRepository = stub(ProductRepository.class);
+        when(productRepository.findAll()).thenReturn(catalog);
+        when(productRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        GlobalConfigRepository configRepository = stub(GlobalConfigRepository.class);
+        when(configRepository.findById(any())).thenReturn(
+                Optional.of(GlobalConfig.builder().id(1L).profitPercentage(globalMarkup).build()));
+
+        return new ProductService(productRepository, configRepository, profitRuleService(rules), objectMapper(),
+                new ProductSearchIndex(productRepository), stub(ApplicationEventPublisher.class),
+                new SimpleMeterRegistry());
+    }
+
+    static ProfitRuleService profitRuleService(List<ProfitRule> rules) {
+        ProfitRuleRepository ruleRepository = stub(ProfitRuleRepository.class);
+        when(ruleRepository.findAllByOrderByMinPriceUsdAsc()).thenReturn(rules);
+        return new ProfitRuleService(ruleRepository, stub(ApplicationEventPublisher.class), new SimpleMeterRegistry());
+    }
+
+    /** Mismo ObjectMapper que arma Spring Boot por defecto. */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
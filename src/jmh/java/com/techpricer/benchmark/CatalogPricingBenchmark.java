@@ -0,0 +1,41 @@
+package com.techpricer.benchmark;
+
+import com.techpricer.model.Product;
+import com.techpricer.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cálculo de precios de todo el catálogo
+ * (ProductService.getAllProductsWithCalculatedPrice) con findAll() stubeado,
+ * para aislar el costo de pricing del de la base.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CatalogPricingBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int catalogSize;
+
+    @Param({ "0", "50" })
+    public int ruleCount;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        productService = BenchmarkFixtures.productService(SyntheticCatalog.products(catalogSize, 3),
+                SyntheticCatalog.rules(ruleCount, 5), 20.0);
+    }
+
+    @Benchmark
+    public List<Product> priceCatalog() {
+        return productService.getAllProductsWithCalculatedPrice(1250.0);
+    }
+}
@@ -0,0 +1,45 @@
+package com.techpricer.benchmark;
+
+import com.techpricer.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parseo de listas de proveedor sintéticas con todos los formatos (categorías,
+ * ▪️ con notas, Format A/B/C, mayorista, CSV y líneas rechazadas), en texto
+ * plano y envuelto en {"data": "..."}. La persistencia está stubeada.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImportParsingBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int lines;
+
+    private ProductService productService;
+    private String rawText;
+    private String jsonWrapped;
+
+    @Setup
+    public void setUp() throws Exception {
+        productService = BenchmarkFixtures.productService(List.of(), List.of(), 0.0);
+        rawText = SyntheticCatalog.supplierList(lines, 42);
+        jsonWrapped = BenchmarkFixtures.objectMapper().writeValueAsString(java.util.Map.of("data", rawText));
+    }
+
+    @Benchmark
+    public void importPlainText() {
+        productService.importProducts(rawText);
+    }
+
+    @Benchmark
+    public void importJsonWrapped() {
+        productService.importProducts(jsonWrapped);
+    }
+}
@@ -0,0 +1,39 @@
+package com.techpricer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización Jackson de la lista de productos que devuelve
+ * /api/public/products, con el ObjectMapper por defecto de Spring Boot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSerializationBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int catalogSize;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        products = BenchmarkFixtures.productService(SyntheticCatalog.products(catalogSize, 3), List.of(), 20.0)
+                .getAllProductsWithCalculatedPrice(1250.0);
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,51 @@
+package com.techpricer.benchmark;
+
+import com.techpricer.model.Product;
+import com.techpricer.service.ProfitRuleIndex;
+import com.techpricer.service.ProfitRuleService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolución de markup por producto (ProfitRuleService.resolveProfit) con
+ * distintas cantidades de reglas. Cada operación resuelve 1024 productos.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfitRuleResolutionBenchmark {
+
+    @Param({ "10", "100", "1000", "10000" })
+    public int ruleCount;
+
+    private ProfitRuleService profitRuleService;
+    private ProfitRuleIndex index;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        profitRuleService = BenchmarkFixtures.profitRuleService(SyntheticCatalog.rules(ruleCount, 7));
+        index = profitRuleService.getRuleIndex();
+        products = SyntheticCatalog.products(1024, 11);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void resolveProfit(Blackhole bh) {
+        for (Product product : products) {
+            bh.consume(profitRuleService.resolveProfit(product.getOriginalPriceUsd(), product.getCategory(), index));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public ProfitRuleIndex compileIndex() {
+        return ProfitRuleIndex.compile(SyntheticCatalog.rules(ruleCount, 7));
+    }
+}
@@ -0,0 +1,105 @@
+package com.techpricer.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.techpricer.TechPricerApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo hasta la primera request: arranca la aplicación completa (Tomcat,
+ * Hibernate sobre H2 en memoria, API del dólar contra un stub local) y mide
+ * hasta que responde el primer GET /api/public/products.
+ *
+ * Cada fork es una JVM nueva con una sola medición (SingleShotTime), así que
+ * el score es un arranque en frío real. {@code profile=startup} usa
+ * application-startup.properties (lazy init, warm-up antes del ready, etc.),
+ * salvo ddl-auto, que sigue en create-drop porque H2 arranca vacío. Con el
+ * warm-up el arranque tarda más pero la primera request ya encuentra todo
+ * cargado y compilado; el score incluye las dos cosas.
+ *
+ * AOT y CDS son flags de la JVM y del build (perfil Maven startup), así que no
+ * se miden acá: para eso está la corrida de entrenamiento del perfil, que
+ * loguea el tiempo de arranque.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({ "default", "startup" })
+    public String profile;
+
+    private HttpServer dolarStub;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void startStub() throws Exception {
+        byte[] oficial = "{\"compra\": 1180.0, \"venta\": 1220.0, \"fechaActualizacion\": \"2026-10-19T10:00:00Z\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        dolarStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        dolarStub.createContext("/v1/dolares/oficial", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, oficial.length);
+            exchange.getResponseBody().write(oficial);
+            exchange.close();
+        });
+        dolarStub.start();
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        String dolarApi = "http://127.0.0.1:" + dolarStub.getAddress().getPort() + "/v1/dolares/oficial";
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--app.dolar.api-url=" + dolarApi));
+        if (!"default".equals(profile)) {
+            args.add("--spring.profiles.active=" + profile);
+            // El stub solo sirve el oficial
+            args.add("--app.warmup.rate-paths=/api/public/products,/api/public/categories,/api/public/config");
+        }
+        context = new SpringApplicationBuilder(TechPricerApplication.class).run(args.toArray(new String[0]));
+
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/public/products")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Primera request con status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopApplication() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopStub() {
+        dolarStub.stop(0);
+    }
+}
@@ -0,0 +1,140 @@
+package com.techpricer.benchmark;
+
+import com.techpricer.model.Product;
+import com.techpricer.model.ProfitRule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador determinístico de datos de prueba: listas de proveedor con todos
+ * los formatos que entiende ProductService.importProducts, catálogos ya
+ * parseados y conjuntos de reglas de ganancia.
+ */
+public final class SyntheticCatalog {
+
+    private static final String[] CATEGORIES = {
+            "CELULARES 📱", "NOTEBOOKS 💻", "ACCESORIOS 🎧", "TELEVISORES 📺", "CONSOLAS 🎮", "Audio y Música",
+            "Cargadores", "Smartwatches ⌚" };
+    private static final String[] BRANDS = {
+            "IPHONE", "SAMSUNG", "MOTOROLA", "XIAOMI", "MACBOOK", "LENOVO", "JBL", "SONY", "PLAYSTATION" };
+    private static final String[] MODELS = { "15", "15 PRO", "16 PRO MAX", "S25 ULTRA", "G05", "A06", "NOTE 14",
+            "AIR M1", "IDEAPAD 3", "FLIP 6", "5 SLIM" };
+    private static final String[] STORAGE = { "4/64 GB", "4/256 GB", "8/128 GB", "12/256 GB", "128 GB", "256 GB",
+            "512 GB", "1 TB" };
+    private static final String[] COLORS = { "BLACK", "BLUE", "GREEN", "ORANGE", "GRAY", "SILVER", "WHITE" };
+    private static final String[] NOTES = { "(S/CARG)", "*S/CARG*", "🔥", "(ESIM)", "a$ 1410" };
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * @return texto de proveedor de aproximadamente {@code lines} líneas.
+     */
+    public static String supplierList(int lines, long seed) {
+        Random random = new Random(seed);
+        StringBuilder sb = new StringBuilder(lines * 48);
+        int written = 0;
+        while (written < lines) {
+            sb.append("► ").append(pick(random, CATEGORIES)).append('\n');
+            written++;
+            int productsInCategory = 10 + random.nextInt(40);
+            for (int i = 0; i < productsInCategory && written < lines; i++) {
+                String name = productName(random);
+                int price = 10 + random.nextInt(2500);
+                switch (random.nextInt(10)) {
+                    case 0 -> { // Format A: variantes con precio propio
+                        sb.append("▪️").append(name).append(" - $").append(price).append(" a$ ").append(price + 10)
+                                .append('\n');
+                        sb.append(pick(random, COLORS)).append(" ($").append(price).append(") / ")
+                                .append(pick(random, COLORS)).append(" ($").append(price + 10).append(")\n");
+                        written += 2;
+                    }
+                    case 1 -> { // Format B: etiquetas planas en la línea siguiente
+                        sb.append("▪️").append(name).append(" - $ ").append(price).append(" (S/CARG)\n");
+                        sb.append(pick(random, COLORS)).append(" / ").append(pick(random, COLORS)).append('\n');
+                        written += 2;
+                    }
+                    case 2 -> { // Format C: variantes inline
+                        sb.append("▪️").append(name).append(" - $ ").append(price).append(' ')
+                                .append(pick(random, COLORS)).append(" / ").append(pick(random, COLORS)).append('\n');
+                        written++;
+                    }
+                    case 3 -> { // precio mayorista a ignorar
+                        sb.append("▪️").append(name).append(" (x ").append(2 + random.nextInt(10)).append(" uni ")
+                                .append(price - 5).append(" uss) - $ ").append(price).append('\n');
+                        written++;
+                    }
+                    case 4 -> { // nota
+                        sb.append("▪️").append(name).append(" - $ ").append(price).append(' ')
+                                .append(pick(random, NOTES)).append('\n');
+                        written++;
+                    }
+                    case 5 -> { // CSV
+                        sb.append(name).append(", ").append(price).append(", Otros\n");
+                        written++;
+                    }
+                    case 6 -> { // línea que no matchea nada
+                        sb.append("Consultar stock por privado ✅\n");
+                        written++;
+                    }
+                    default -> {
+                        sb.append("▪️").append(name).append(" - $ ").append(price).append(".50\n");
+                        written++;
+                    }
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return catálogo ya parseado, con ids, como lo devolvería findAll().
+     */
+    public static List<Product> products(int count, long seed) {
+        Random random = new Random(seed);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(Product.builder()
+                    .id((long) i + 1)
+                    .name(productName(random) + " " + pick(random, COLORS))
+                    .originalPriceUsd(10 + random.nextInt(250000) / 100.0)
+                    .category(pick(random, CATEGORIES))
+                    .build());
+        }
+        return products;
+    }
+
+    /**
+     * @return {@code count} reglas (un cuarto con categoría), ordenadas como
+     *         findAllByOrderByMinPriceUsdAsc.
+     */
+    public static List<ProfitRule> rules(int count, long seed) {
+        Random random = new Random(seed);
+        List<ProfitRule> rules = new ArrayList<>(count);
+        double step = 2500.0 / Math.max(1, count);
+        for (int i = 0; i < count; i++) {
+            double min = i * step;
+            rules.add(ProfitRule.builder()
+                    .id((long) i + 1)
+                    .category(i % 4 == 0 ? pick(random, CATEGORIES) : null)
+                    .minPriceUsd(min)
+                    .maxPriceUsd(min + step * (1 + random.nextInt(3)))
+                    .profitPercentage(5.0 + random.nextInt(40))
+                    .build());
+        }
+        rules.sort(Comparator.comparing(ProfitRule::getMinPriceUsd));
+        return rules;
+    }
+
+    private static String productName(Random random) {
+        return pick(random, BRANDS) + " " + pick(random, MODELS) + " " + pick(random, STORAGE);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
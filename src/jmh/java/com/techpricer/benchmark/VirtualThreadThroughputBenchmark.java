@@ -0,0 +1,105 @@
+package com.techpricer.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import com.techpricer.repository.DollarRateRepository;
+import com.techpricer.service.DolarService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el modo de ejecución por defecto (pool de 200 platform threads, como
+ * el de Tomcat) contra virtual threads, con {@code concurrency} requests
+ * simultáneas que llaman a DolarService contra un stub local que tarda
+ * {@code latencyMs} en responder.
+ *
+ * El score es el tiempo en atender la ráfaga completa: con el pool fijo crece
+ * con concurrency / 200 × latencia; con virtual threads queda cerca de una
+ * sola latencia más el costo de CPU de las requests. En máquinas con pocos
+ * cores ese costo de CPU domina con latencias bajas, por eso el default es
+ * 500 ms (referencia con 1 core: ~3.2 s platform vs ~1.8 s virtual).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@State(Scope.Benchmark)
+public class VirtualThreadThroughputBenchmark {
+
+    private static final int TOMCAT_DEFAULT_MAX_THREADS = 200;
+
+    @Param({ "platform", "virtual" })
+    public String mode;
+
+    @Param({ "1000" })
+    public int concurrency;
+
+    @Param({ "500" })
+    public int latencyMs;
+
+    private HttpServer stub;
+    private ExecutorService executor;
+    private DolarService dolarService;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        byte[] body = "{\"compra\": 1180.0, \"venta\": 1220.0, \"fechaActualizacion\": \"2026-10-19T10:00:00Z\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        stub.createContext("/v1/dolares/oficial", exchange -> {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        stub.start();
+
+        dolarService = new DolarService(new RestTemplateBuilder(), new SimpleMeterRegistry(),
+                Mockito.mock(DollarRateRepository.class), event -> { }, "local", Duration.ofMinutes(10),
+                Duration.ofSeconds(5), Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dolarService, "apiUrl",
+                "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1/dolares/oficial");
+
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_DEFAULT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        stub.stop(0);
+    }
+
+    @Benchmark
+    public double burst() throws Exception {
+        List<Future<Double>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(dolarService::getDolarVenta));
+        }
+        double sum = 0;
+        for (Future<Double> future : futures) {
+            sum += future.get();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,85 @@
+package com.techpricer.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stub local de dolarapi.com para las pruebas de carga: sirve
+ * /v1/dolares/oficial (app.dolar.api-url) y /v1/dolares (app.dolar.rates-url)
+ * con una latencia fija y una proporción de respuestas 500.
+ */
+public final class DolarApiStub implements AutoCloseable {
+
+    private static final String UPDATED_AT = "2026-10-19T10:00:00Z";
+
+    private final HttpServer server;
+    private final long latencyMs;
+    private final double failureRate;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public DolarApiStub(long latencyMs, double failureRate) throws IOException {
+        this.latencyMs = latencyMs;
+        this.failureRate = failureRate;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/v1/dolares/oficial", exchange -> respond(exchange, rate("oficial", 1180.0, 1220.0)));
+        server.createContext("/v1/dolares", exchange -> respond(exchange, "["
+                + String.join(",",
+                        rate("oficial", 1180.0, 1220.0),
+                        rate("blue", 1390.0, 1410.0),
+                        rate("bolsa", 1385.5, 1402.3),
+                        rate("tarjeta", 1534.0, 1586.0))
+                + "]"));
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/dolares";
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    public long failures() {
+        return failures.get();
+    }
+
+    private void respond(HttpExchange exchange, String json) throws IOException {
+        calls.incrementAndGet();
+        try {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean fail = failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate;
+        byte[] body = (fail ? "{\"error\":\"stub failure\"}" : json).getBytes(StandardCharsets.UTF_8);
+        if (fail) {
+            failures.incrementAndGet();
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static String rate(String casa, double compra, double venta) {
+        return "{\"casa\":\"%s\",\"nombre\":\"%s\",\"compra\":%s,\"venta\":%s,\"fechaActualizacion\":\"%s\"}"
+                .formatted(casa, casa, compra, venta, UPDATED_AT);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
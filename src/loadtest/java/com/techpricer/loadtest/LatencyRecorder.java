@@ -0,0 +1,87 @@
+package com.techpricer.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencias y códigos de estado de un endpoint. Guarda todas las muestras (un
+ * long por request) para calcular percentiles exactos al final; con las
+ * duraciones de una corrida local son a lo sumo unos pocos MB.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[4096];
+    private int count;
+    private long errors;
+    private final Map<String, Long> statusCounts = new TreeMap<>();
+
+    /**
+     * @param status código HTTP, o "io_error" si la request no llegó a tener
+     *               respuesta
+     */
+    synchronized void record(long latencyNanos, String status, boolean error) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+        statusCounts.merge(status, 1L, Long::sum);
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized long count() {
+        return count;
+    }
+
+    synchronized long errors() {
+        return errors;
+    }
+
+    /**
+     * @return resumen listo para serializar: cantidad, errores, throughput,
+     *         latencias en ms (media, p50, p95, p99, máxima) y conteo por status.
+     */
+    synchronized Map<String, Object> summary(double elapsedSeconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long sample : sorted) {
+            total += sample;
+        }
+
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", count > 0 ? millis(total / count) : 0.0);
+        latency.put("p50", millis(percentile(sorted, 50)));
+        latency.put("p95", millis(percentile(sorted, 95)));
+        latency.put("p99", millis(percentile(sorted, 99)));
+        latency.put("max", count > 0 ? millis(sorted[count - 1]) : 0.0);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", count);
+        summary.put("errors", errors);
+        summary.put("throughputRps", round(count / elapsedSeconds));
+        summary.put("latencyMs", latency);
+        summary.put("status", new TreeMap<>(statusCounts));
+        return summary;
+    }
+
+    /** Percentil por rango más cercano. */
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return round(nanos / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
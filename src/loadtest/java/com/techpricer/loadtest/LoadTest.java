@@ -0,0 +1,349 @@
+package com.techpricer.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.techpricer.TechPricerApplication;
+import com.techpricer.benchmark.SyntheticCatalog;
+import com.techpricer.model.ProfitRule;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Prueba de carga de punta a punta, reproducible y sin dependencias externas.
+ *
+ * Levanta la aplicación completa sobre H2 en memoria con la API del dólar
+ * apuntando a {@link DolarApiStub}, carga reglas de ganancia y una lista de
+ * proveedor sintética ({@link SyntheticCatalog}) por /api/admin/import, y
+ * después {@code concurrency} clientes (virtual threads, cada uno con una
+ * request a la vez) mandan tráfico mixto público / admin según {@code mix}
+ * durante {@code warmup} (descartado) y {@code duration} (medido). Con el
+ * mismo {@code seed} se repiten los datos y la secuencia de endpoints y
+ * parámetros de cada cliente.
+ *
+ * El resultado queda en un JSON con throughput y p50 / p95 / p99 por endpoint,
+ * con las claves siempre en el mismo orden para poder diffear entre builds.
+ *
+ * Se corre con el perfil Maven loadtest; los parámetros van como key=value y
+ * los argumentos que empiezan con "--" pasan tal cual a la aplicación:
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec \
+ *     -Dloadtest.args="duration=60s concurrency=64 stub-latency-ms=200 --app.admission.enabled=false"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String TOTAL = "total";
+    private static final String DEFAULT_MIX = "public.products:30,public.products.rates:5,public.search:25,"
+            + "public.categories:10,public.config:10,public.history.dollar:3,admin.rules:5,admin.product:4,"
+            + "admin.simulate:4,admin.export:2,admin.import:2";
+    private static final String[] SEARCH_TERMS = {
+            "iphone", "samsung 256", "notebook", "jbl", "xiaomi note", "macbook air", "128 gb", "motorola g05" };
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        System.out.println("[LoadTest] " + settings);
+
+        try (DolarApiStub stub = new DolarApiStub(settings.stubLatencyMs(), settings.stubFailureRate());
+                ConfigurableApplicationContext app = startApplication(settings, stub)) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            String baseUrl = "http://localhost:" + port;
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            ObjectMapper mapper = new ObjectMapper();
+
+            Map<String, Object> seed = seed(client, mapper, baseUrl, settings);
+            System.out.println("[LoadTest] Datos cargados: " + seed);
+
+            List<Endpoint> endpoints = endpoints(baseUrl, settings, mapper);
+            SplittableRandom traffic = new SplittableRandom(settings.seed());
+            System.out.println("[LoadTest] Warm-up " + settings.warmup());
+            drive(client, endpoints, settings.concurrency(), settings.warmup(), traffic.split());
+            long stubCallsBefore = stub.calls();
+            long stubFailuresBefore = stub.failures();
+
+            System.out.println("[LoadTest] Midiendo " + settings.duration());
+            long start = System.nanoTime();
+            Map<String, LatencyRecorder> recorders = drive(client, endpoints, settings.concurrency(),
+                    settings.duration(), traffic.split());
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("generatedAt", Instant.now().toString());
+            report.put("settings", settings.toMap());
+            report.put("seed", seed);
+            report.put("elapsedSeconds", Math.round(elapsedSeconds * 100) / 100.0);
+            Map<String, Object> dolarStub = new LinkedHashMap<>();
+            dolarStub.put("calls", stub.calls() - stubCallsBefore);
+            dolarStub.put("failures", stub.failures() - stubFailuresBefore);
+            report.put("dolarStub", dolarStub);
+            report.put("total", recorders.remove(TOTAL).summary(elapsedSeconds));
+            Map<String, Object> perEndpoint = new LinkedHashMap<>();
+            recorders.forEach((name, recorder) -> perEndpoint.put(name, recorder.summary(elapsedSeconds)));
+            report.put("endpoints", perEndpoint);
+
+            Files.createDirectories(settings.report().toAbsolutePath().getParent());
+            mapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(settings.report().toFile(), report);
+            System.out.println("[LoadTest] Reporte en " + settings.report().toAbsolutePath());
+            System.out.println(mapper.writeValueAsString(report.get("total")));
+        }
+    }
+
+    // ── Arranque y datos ────────────────────────────────────────────────────────
+
+    private static ConfigurableApplicationContext startApplication(Settings settings, DolarApiStub stub) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--app.dolar.api-url=" + stub.baseUrl() + "/oficial",
+                "--app.dolar.rates-url=" + stub.baseUrl()));
+        args.addAll(settings.appArgs());
+        return new SpringApplicationBuilder(TechPricerApplication.class).run(args.toArray(new String[0]));
+    }
+
+    private static Map<String, Object> seed(HttpClient client, ObjectMapper mapper, String baseUrl,
+            Settings settings) throws IOException, InterruptedException {
+        for (ProfitRule rule : SyntheticCatalog.rules(settings.rules(), settings.seed())) {
+            rule.setId(null);
+            expectOk(client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/rules"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(rule)))
+                    .build(), HttpResponse.BodyHandlers.ofString()), "crear regla");
+        }
+
+        String supplierList = SyntheticCatalog.supplierList(settings.catalogLines(), settings.seed());
+        long start = System.nanoTime();
+        HttpResponse<String> response = expectOk(client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/api/admin/import"))
+                        .header("Content-Type", "text/plain; charset=UTF-8")
+                        .POST(HttpRequest.BodyPublishers.ofString(supplierList))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()), "import");
+        long importMs = (System.nanoTime() - start) / 1_000_000;
+
+        Map<String, Object> seed = new LinkedHashMap<>();
+        seed.put("rules", settings.rules());
+        seed.put("supplierLines", settings.catalogLines());
+        seed.put("products", mapper.readTree(response.body()).path("products").size());
+        seed.put("importMs", importMs);
+        return seed;
+    }
+
+    private static HttpResponse<String> expectOk(HttpResponse<String> response, String what) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Falló " + what + " (" + response.statusCode() + "): " + response.body());
+        }
+        return response;
+    }
+
+    // ── Tráfico ───────────────────────────────────────────────────────────────
+
+    /**
+     * @param request arma la request; recibe el random del cliente
+     */
+    private record Endpoint(String name, int weight, Function<SplittableRandom, HttpRequest> request) {
+    }
+
+    private static List<Endpoint> endpoints(String baseUrl, Settings settings, ObjectMapper mapper) {
+        AtomicLong productSequence = new AtomicLong();
+        String supplierList = SyntheticCatalog.supplierList(settings.catalogLines(), settings.seed());
+        Map<String, Function<SplittableRandom, HttpRequest>> all = new LinkedHashMap<>();
+        all.put("public.products", random -> get(baseUrl + "/api/public/products"));
+        all.put("public.products.rates", random -> get(baseUrl + "/api/public/products?rates=all"));
+        all.put("public.search", random -> get(baseUrl + "/api/public/products/search?size=20&q="
+                + SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)].replace(" ", "+")));
+        all.put("public.categories", random -> get(baseUrl + "/api/public/categories"));
+        all.put("public.config", random -> get(baseUrl + "/api/public/config"));
+        all.put("public.history.dollar", random -> get(baseUrl + "/api/public/history/dollar"));
+        all.put("admin.rules", random -> get(baseUrl + "/api/admin/rules"));
+        all.put("admin.product", random -> post(baseUrl + "/api/admin/product", "application/json",
+                "{\"name\":\"LOADTEST %d\",\"priceUsd\":%d,\"category\":\"LOADTEST\"}"
+                        .formatted(productSequence.incrementAndGet(), 10 + random.nextInt(2500))));
+        all.put("admin.simulate", random -> post(baseUrl + "/api/admin/pricing/simulate", "application/json",
+                "{\"profitMargin\":%d,\"topMovers\":20}".formatted(5 + random.nextInt(40))));
+        all.put("admin.export", random -> get(baseUrl + "/api/admin/export?format=csv"));
+        all.put("admin.import", random -> post(baseUrl + "/api/admin/import", "text/plain; charset=UTF-8",
+                supplierList));
+
+        List<Endpoint> endpoints = new ArrayList<>();
+        settings.mix().forEach((name, weight) -> {
+            if (!all.containsKey(name)) {
+                throw new IllegalArgumentException("Endpoint desconocido en mix: " + name + ". Disponibles: "
+                        + all.keySet());
+            }
+            if (weight > 0) {
+                endpoints.add(new Endpoint(name, weight, all.get(name)));
+            }
+        });
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("mix no tiene ningún endpoint con peso > 0");
+        }
+        return endpoints;
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).GET().build();
+    }
+
+    private static HttpRequest post(String url, String contentType, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Lazo cerrado: cada cliente manda la siguiente request apenas recibe la
+     * respuesta completa de la anterior. Cada cliente usa su propio random,
+     * derivado de {@code random} en orden, así la secuencia de cada uno
+     * depende solo del seed.
+     *
+     * @return un recorder por endpoint, en el orden de {@code endpoints}, más
+     *         uno con el total bajo la clave "total"
+     */
+    private static Map<String, LatencyRecorder> drive(HttpClient client, List<Endpoint> endpoints, int concurrency,
+            Duration duration, SplittableRandom random) throws InterruptedException {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        recorders.put(TOTAL, new LatencyRecorder());
+        endpoints.forEach(endpoint -> recorders.put(endpoint.name(), new LatencyRecorder()));
+        LatencyRecorder total = recorders.get(TOTAL);
+
+        int[] cumulative = new int[endpoints.size()];
+        int sum = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            sum += endpoints.get(i).weight();
+            cumulative[i] = sum;
+        }
+        int totalWeight = sum;
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                SplittableRandom clientRandom = random.split();
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = pick(endpoints, cumulative, clientRandom.nextInt(totalWeight));
+                        HttpRequest request = endpoint.request().apply(clientRandom);
+                        long start = System.nanoTime();
+                        String status;
+                        boolean error;
+                        try {
+                            int code = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            status = String.valueOf(code);
+                            error = code >= 400;
+                        } catch (IOException e) {
+                            status = "io_error";
+                            error = true;
+                        }
+                        long latency = System.nanoTime() - start;
+                        recorders.get(endpoint.name()).record(latency, status, error);
+                        total.record(latency, status, error);
+                    }
+                    return null;
+                });
+            }
+        }
+        return recorders;
+    }
+
+    private static Endpoint pick(List<Endpoint> endpoints, int[] cumulative, int roll) {
+        for (int i = 0; i < cumulative.length; i++) {
+            if (roll < cumulative[i]) {
+                return endpoints.get(i);
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    // ── Parámetros ──────────────────────────────────────────────────────────────
+
+    /**
+     * @param mix      endpoint → peso relativo (ver {@link #DEFAULT_MIX})
+     * @param appArgs  argumentos "--..." que se pasan a la aplicación
+     */
+    record Settings(Duration duration, Duration warmup, int concurrency, int catalogLines, int rules,
+            long stubLatencyMs, double stubFailureRate, long seed, Path report, Map<String, Integer> mix,
+            List<String> appArgs) {
+
+        static Settings parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            List<String> appArgs = new ArrayList<>();
+            for (String arg : args) {
+                if (arg.startsWith("--")) {
+                    appArgs.add(arg);
+                } else if (arg.contains("=")) {
+                    values.put(arg.substring(0, arg.indexOf('=')).trim(), arg.substring(arg.indexOf('=') + 1).trim());
+                } else if (!arg.isBlank()) {
+                    throw new IllegalArgumentException("Argumento inválido (se espera key=value): " + arg);
+                }
+            }
+            Map<String, Integer> mix = new LinkedHashMap<>();
+            for (String entry : values.getOrDefault("mix", DEFAULT_MIX).split(",")) {
+                String[] parts = entry.split(":");
+                mix.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+            }
+            return new Settings(
+                    DurationStyle.detectAndParse(values.getOrDefault("duration", "60s")),
+                    DurationStyle.detectAndParse(values.getOrDefault("warmup", "15s")),
+                    Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                    Integer.parseInt(values.getOrDefault("catalog-lines", "5000")),
+                    Integer.parseInt(values.getOrDefault("rules", "20")),
+                    Long.parseLong(values.getOrDefault("stub-latency-ms", "50")),
+                    Double.parseDouble(values.getOrDefault("stub-failure-rate", "0")),
+                    Long.parseLong(values.getOrDefault("seed", "42")),
+                    Path.of(values.getOrDefault("report", "target/loadtest-report.json")),
+                    mix,
+                    appArgs);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("durationSeconds", duration.toSeconds());
+            map.put("warmupSeconds", warmup.toSeconds());
+            map.put("concurrency", concurrency);
+            map.put("catalogLines", catalogLines);
+            map.put("rules", rules);
+            map.put("stubLatencyMs", stubLatencyMs);
+            map.put("stubFailureRate", stubFailureRate);
+            map.put("seed", seed);
+            map.put("mix", mix);
+            map.put("appArgs", appArgs);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.techpricer.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Control de admisión para /api/public/** y /api/admin/**.
+ *
+ * Cada grupo tiene su propio cupo de requests concurrentes y una cola corta;
+ * si el cupo está lleno y la cola también (o se vence la espera) la request se
+ * rechaza enseguida con 503 + Retry-After en vez de sumarse a la espera del
+ * pool de conexiones. Los cupos por defecto suman el tamaño del pool de
+ * Hikari, así el tráfico público nunca deja sin conexiones a los imports.
+ *
+ * Para los GET públicos cacheables se guarda la última respuesta 200; si una
+ * request se rechaza y hay copia, se devuelve esa copia con X-Cache: STALE.
+ * La copia se guarda por path + el parámetro rates normalizado (el resto de
+ * los parámetros se ignora, así no se puede llenar la cache variando la query)
+ * y la cache tiene un tope en bytes (app.admission.stale-cache.max-size).
+ * Copiar la respuesta cuesta (el catálogo completo son varios MB), así que
+ * cada copia se renueva como mucho una vez por retry-after, con una sola
+ * request a la vez; las demás pasan sin envolver.
+ *
+ * Una request asíncrona ocupa su cupo hasta que termina, no solo durante el
+ * primer dispatch.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final Bulkhead publicBulkhead;
+    private final Bulkhead adminBulkhead;
+    private final long retryAfterSeconds;
+    private final List<String> cacheablePaths;
+    private final MeterRegistry meterRegistry;
+    private final long staleCacheMaxBytes;
+    private final long staleRefreshNanos;
+    // Claves cuya copia está renovando alguna request en curso
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    // Última respuesta 200 de los GET cacheables por cacheKey, en orden LRU;
+    // cachedBytes es la suma de los cuerpos (se accede con el lock del mapa)
+    private final Map<String, CachedResponse> lastGoodResponses = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    public AdmissionControlFilter(
+            @Value("${app.admission.enabled:true}") boolean enabled,
+            @Value("${app.admission.public.max-concurrent:6}") int publicMaxConcurrent,
+            @Value("${app.admission.public.max-queue:20}") int publicMaxQueue,
+            @Value("${app.admission.public.queue-timeout:100ms}") Duration publicQueueTimeout,
+            @Value("${app.admission.admin.max-concurrent:4}") int adminMaxConcurrent,
+            @Value("${app.admission.admin.max-queue:10}") int adminMaxQueue,
+            @Value("${app.admission.admin.queue-timeout:5s}") Duration adminQueueTimeout,
+            @Value("${app.admission.retry-after:2s}") Duration retryAfter,
+            @Value("${app.admission.cacheable-paths:/api/public/products,/api/public/config,/api/public/categories}") String cacheablePaths,
+            @Value("${app.admission.stale-cache.max-size:32MB}") DataSize staleCacheMaxSize,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.publicBulkhead = new Bulkhead("public", publicMaxConcurrent, publicMaxQueue, publicQueueTimeout);
+        this.adminBulkhead = new Bulkhead("admin", adminMaxConcurrent, adminMaxQueue, adminQueueTimeout);
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.cacheablePaths = Arrays.stream(cacheablePaths.split(",")).map(String::trim)
+                .filter(p -> !p.isEmpty()).toList();
+        this.meterRegistry = meterRegistry;
+        this.staleCacheMaxBytes = staleCacheMaxSize.toBytes();
+        this.staleRefreshNanos = TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        return bulkheadFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheadFor(request);
+        if (!bulkhead.tryEnter()) {
+            reject(request, response, bulkhead);
+            return;
+        }
+        boolean releaseOnAsyncComplete = false;
+        try {
+            String key = isCacheable(request) ? cacheKey(request) : null;
+            if (key != null && isRefreshDue(key) && refreshing.add(key)) {
+                try {
+                    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+                    chain.doFilter(request, wrapper);
+                    if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+                        remember(key, wrapper);
+                    }
+                    wrapper.copyBodyToResponse();
+                } finally {
+                    refreshing.remove(key);
+                }
+            } else {
+                chain.doFilter(request, response);
+            }
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(bulkhead));
+                releaseOnAsyncComplete = true;
+            }
+        } finally {
+            if (!releaseOnAsyncComplete) {
+                bulkhead.exit();
+            }
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, Bulkhead bulkhead)
+            throws IOException {
+        CachedResponse cached = isCacheable(request) ? lookup(cacheKey(request)) : null;
+        if (cached != null) {
+            meterRegistry.counter("techpricer.admission.rejected", "pool", bulkhead.name, "served", "stale")
+                    .increment();
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(cached.contentType());
+            response.setHeader("X-Cache", "STALE");
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+        meterRegistry.counter("techpricer.admission.rejected", "pool", bulkhead.name, "served", "none").increment();
+        log.warn("[Admission] Cupo {} lleno, rechazando {} {}", bulkhead.name, request.getMethod(),
+                request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"Servicio saturado, reintentá en unos segundos.\"}");
+    }
+
+    private Bulkhead bulkheadFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/admin/")) {
+            return adminBulkhead;
+        }
+        if (path.startsWith("/api/public/")) {
+            return publicBulkhead;
+        }
+        return null;
+    }
+
+    private boolean isCacheable(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return cacheablePaths.contains(path);
+    }
+
+    /**
+     * Path + rates normalizado (minúsculas, sin vacíos ni repetidos, en el
+     * orden pedido, que es el de las columnas de la respuesta). Es el único
+     * parámetro de los GET cacheables que cambia la respuesta.
+     */
+    static String cacheKey(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String rates = request.getParameter("rates");
+        if (rates == null) {
+            return path;
+        }
+        List<String> types = Arrays.stream(rates.split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .filter(type -> !type.isEmpty())
+                .distinct()
+                .toList();
+        return types.isEmpty() ? path : path + "?rates=" + String.join(",", types);
+    }
+
+    /** Sin copia, o con una copia guardada hace más de retry-after. */
+    private boolean isRefreshDue(String key) {
+        CachedResponse cached = lookup(key);
+        return cached == null || System.nanoTime() - cached.storedAtNanos() >= staleRefreshNanos;
+    }
+
+    private void remember(String key, ContentCachingResponseWrapper wrapper) {
+        if (wrapper.getContentSize() > staleCacheMaxBytes) {
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        CachedResponse cached = new CachedResponse(body,
+                wrapper.getContentType() != null ? wrapper.getContentType() : MediaType.APPLICATION_JSON_VALUE,
+                System.nanoTime());
+        synchronized (lastGoodResponses) {
+            CachedResponse previous = lastGoodResponses.put(key, cached);
+            cachedBytes += body.length - (previous != null ? previous.body().length : 0);
+            // Descarta las menos usadas hasta volver a entrar en el tope
+            Iterator<CachedResponse> eldest = lastGoodResponses.values().iterator();
+            while (cachedBytes > staleCacheMaxBytes && eldest.hasNext()) {
+                cachedBytes -= eldest.next().body().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private CachedResponse lookup(String key) {
+        synchronized (lastGoodResponses) {
+            return lastGoodResponses.get(key);
+        }
+    }
+
+    private record CachedResponse(byte[] body, String contentType, long storedAtNanos) {
+    }
+
+    /**
+     * Las respuestas asíncronas (la exportación con StreamingResponseBody) se
+     * siguen escribiendo después de que vuelve el primer dispatch, y este
+     * filtro no corre en el dispatch async: el cupo se devuelve recién cuando
+     * termina la request. El contenedor llama a onComplete también después de
+     * un error o un timeout, así que se libera solo ahí.
+     */
+    private record ReleaseOnComplete(Bulkhead bulkhead) implements AsyncListener {
+        @Override
+        public void onComplete(AsyncEvent event) {
+            bulkhead.exit();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    /**
+     * Cupo de concurrencia con cola acotada: como mucho {@code maxQueue}
+     * requests esperando, cada una hasta {@code queueTimeout}.
+     */
+    private static final class Bulkhead {
+        private final String name;
+        private final Semaphore permits;
+        private final int maxQueue;
+        private final long queueTimeoutNanos;
+        private final AtomicInteger waiting = new AtomicInteger();
+
+        Bulkhead(String name, int maxConcurrent, int maxQueue, Duration queueTimeout) {
+            this.name = name;
+            this.permits = new Semaphore(Math.max(1, maxConcurrent), true);
+            this.maxQueue = Math.max(0, maxQueue);
+            this.queueTimeoutNanos = queueTimeout.toNanos();
+        }
+
+        boolean tryEnter() {
+            if (permits.tryAcquire()) {
+                return true;
+            }
+            if (waiting.incrementAndGet() > maxQueue) {
+                waiting.decrementAndGet();
+                return false;
+            }
+            try {
+                return permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+
+        void exit() {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.techpricer.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.service.ProductSearchIndex;
+import com.techpricer.service.ProfitRuleService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.search.Search;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Métricas propias de TechPricer, expuestas junto con las de Spring Boot en
+ * /actuator/prometheus.
+ *
+ * - techpricer.catalog.size: productos en el índice en memoria
+ * - techpricer.rules.count: reglas de ganancia del índice compilado (NaN
+ *   mientras no esté compilado; leerlo no compila el índice ni cuenta en la
+ *   cache)
+ * - techpricer.cache.hit.ratio: aciertos / pedidos de cada cache en memoria
+ *   (rules: índice de reglas; rates: cotizaciones de DolarService.getRates)
+ * - techpricer.serialization: tiempo de serializar cada respuesta JSON
+ *
+ * Los timers de dólar, import y pricing se registran en sus servicios.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder techPricerGauges(ProductSearchIndex searchIndex, ProfitRuleService profitRuleService) {
+        return registry -> {
+            Gauge.builder("techpricer.catalog.size", searchIndex, ProductSearchIndex::size)
+                    .description("Productos en el catálogo en memoria")
+                    .register(registry);
+            Gauge.builder("techpricer.rules.count", profitRuleService, MetricsConfig::ruleCount)
+                    .description("Reglas de ganancia vigentes")
+                    .register(registry);
+            for (String cache : new String[] { "rules", "rates" }) {
+                Gauge.builder("techpricer.cache.hit.ratio", registry, r -> hitRatio(r, cache))
+                        .description("Proporción de aciertos de la cache")
+                        .tag("cache", cache)
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Reemplaza al converter Jackson por defecto de Spring Boot (mismo
+     * ObjectMapper) midiendo cuánto tarda cada serialización.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    sample.stop(Timer.builder("techpricer.serialization")
+                            .description("Serialización JSON de respuestas")
+                            .tag("type", object instanceof Collection<?> ? "collection"
+                                    : object.getClass().getSimpleName())
+                            .register(meterRegistry));
+                }
+            }
+        };
+    }
+
+    private static double ruleCount(ProfitRuleService profitRuleService) {
+        Integer count = profitRuleService.cachedRuleCount();
+        return count != null ? count : Double.NaN;
+    }
+
+    static double hitRatio(MeterRegistry registry, String cache) {
+        Search requests = registry.find(ProfitRuleService.CACHE_REQUESTS_METRIC).tag("cache", cache);
+        double hits = requests.tag("result", "hit").counters().stream().mapToDouble(c -> c.count()).sum();
+        double total = registry.find(ProfitRuleService.CACHE_REQUESTS_METRIC).tag("cache", cache)
+                .counters().stream().mapToDouble(c -> c.count()).sum();
+        return total > 0 ? hits / total : Double.NaN;
+    }
+}
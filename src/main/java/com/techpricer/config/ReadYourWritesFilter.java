@@ -0,0 +1,74 @@
+package com.techpricer.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Protección contra el lag de replicación: si un cliente hizo una escritura
+ * (cualquier request no-GET exitosa a /api/**) en los últimos
+ * {@code pinAfterWrite}, sus requests siguientes leen del primario.
+ *
+ * El cliente se identifica por el header X-Client-Id si viene, o por su IP.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final long pinAfterWriteNanos;
+    private final Map<String, Long> lastWriteByClient = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(Duration pinAfterWrite) {
+        this.pinAfterWriteNanos = pinAfterWrite.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return pinAfterWriteNanos <= 0 || !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = clientKey(request);
+        long now = System.nanoTime();
+        Long lastWrite = lastWriteByClient.get(client);
+        boolean recentWriter = lastWrite != null && now - lastWrite < pinAfterWriteNanos;
+
+        boolean previous = recentWriter && ReplicaRoutingDataSource.pin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (recentWriter) {
+                ReplicaRoutingDataSource.restore(previous);
+            }
+        }
+
+        if (isWrite(request) && response.getStatus() < 400) {
+            lastWriteByClient.put(client, System.nanoTime());
+            if (lastWriteByClient.size() > CLEANUP_THRESHOLD) {
+                long cutoff = System.nanoTime() - pinAfterWriteNanos;
+                lastWriteByClient.values().removeIf(t -> t < cutoff);
+            }
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !"GET".equals(method) && !"HEAD".equals(method) && !"OPTIONS".equals(method);
+    }
+
+    private static String clientKey(HttpServletRequest request) {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        return clientId != null && !clientId.isBlank() ? clientId : request.getRemoteAddr();
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.techpricer.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Envía las transacciones {@code readOnly = true} a la réplica y todo lo demás
+ * (imports, CRUD admin, transacciones de escritura) al primario.
+ *
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión real se
+ * pide recién en la primera sentencia, cuando el flag read-only de la
+ * transacción ya está publicado. Requiere spring.jpa.open-in-view=false: si
+ * no, el EntityManager de la request retiene la conexión de la primera
+ * transacción y las siguientes no vuelven a elegir.
+ *
+ * {@link #pinToPrimary} fuerza el primario en el thread actual, para leer lo
+ * recién escrito sin depender del lag de replicación.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (Boolean.TRUE.equals(PINNED_TO_PRIMARY.get())) {
+            return Target.PRIMARY;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    /**
+     * Ejecuta {@code action} con todas sus lecturas dirigidas al primario.
+     */
+    public static <T> T pinToPrimary(Supplier<T> action) {
+        boolean previous = pin();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /** @return si el thread ya estaba fijado, para pasarlo a {@link #restore}. */
+    static boolean pin() {
+        boolean previous = Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(boolean previous) {
+        if (!previous) {
+            PINNED_TO_PRIMARY.remove();
+        }
+    }
+}
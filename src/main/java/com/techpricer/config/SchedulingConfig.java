@@ -0,0 +1,32 @@
+package com.techpricer.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Habilita las tareas {@code @Scheduled} (lease de la cotización, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Con {@code spring.main.lazy-initialization=true} (perfil startup) un bean
+     * que nadie pide nunca se crea, y sus tareas {@code @Scheduled} nunca se
+     * programan: esos beans se crean siempre al arrancar.
+     */
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> AnnotationUtils.isCandidateClass(beanType, Scheduled.class)
+                && !MethodIntrospector.selectMethods(beanType,
+                        (MethodIntrospector.MetadataLookup<Boolean>) method -> AnnotatedElementUtils
+                                .hasAnnotation(method, Scheduled.class) ? Boolean.TRUE : null)
+                        .isEmpty();
+    }
+}
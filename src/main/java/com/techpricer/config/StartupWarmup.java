@@ -0,0 +1,189 @@
+package com.techpricer.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.service.DolarService;
+import com.techpricer.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Warm-up de la instancia antes de que reporte ready.
+ *
+ * Corre al final de ApplicationReadyEvent (después de cargar el índice de
+ * búsqueda y los agregados), y Spring Boot recién publica el readiness
+ * ACCEPTING_TRAFFIC cuando terminan todos los listeners de ese evento: el
+ * balanceador no le manda tráfico hasta que termina.
+ *
+ * Primero trae la cotización una vez, en proceso. Si no hay (por ejemplo la
+ * API caída) se saltea todo lo que depende de ella. Si hay, pide una vez cada
+ * path de {@code app.warmup.rate-paths} contra la propia instancia, que carga
+ * el índice de reglas y los beans lazy del camino de precios; una sola vez
+ * porque cada request consulta la API del dólar (en modo local no hay cache).
+ * Después hace {@code app.warmup.iterations} pasadas que calculan los precios
+ * del catálogo con esa misma cotización y los serializan con el ObjectMapper
+ * de la aplicación, sin volver a la API, y piden {@code app.warmup.paths} (que
+ * no dependen de la cotización): así el JIT compila el camino de precios,
+ * Jackson, los filtros y JPA. Todo el warm-up tiene un tope de
+ * {@code app.warmup.timeout}; los errores se loguean y no frenan el arranque.
+ *
+ * Se habilita con {@code app.warmup.enabled} (perfil startup). Es un flag y no
+ * una condición sobre el bean para que con AOT se pueda seguir cambiando al
+ * arrancar.
+ */
+@Component
+@Slf4j
+public class StartupWarmup {
+
+    private final boolean enabled;
+    private final Environment environment;
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DolarService dolarService;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final int iterations;
+    private final List<String> paths;
+    private final List<String> ratePaths;
+    private final Duration timeout;
+
+    public StartupWarmup(@Value("${app.warmup.enabled:false}") boolean enabled,
+            Environment environment,
+            RestTemplateBuilder restTemplateBuilder,
+            MeterRegistry meterRegistry,
+            DolarService dolarService,
+            ProductService productService,
+            ObjectMapper objectMapper,
+            @Value("${app.warmup.iterations:20}") int iterations,
+            @Value("${app.warmup.paths:/api/public/history/dollar}") String paths,
+            @Value("${app.warmup.rate-paths:/api/public/products,/api/public/config}") String ratePaths,
+            @Value("${app.warmup.timeout:30s}") Duration timeout) {
+        this.enabled = enabled;
+        this.environment = environment;
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(timeout)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.dolarService = dolarService;
+        this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.iterations = Math.max(1, iterations);
+        this.paths = splitPaths(paths);
+        this.ratePaths = splitPaths(ratePaths);
+        this.timeout = timeout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            log.info("[Warmup] Sin servidor web, se omite");
+            return;
+        }
+        String baseUrl = "http://localhost:" + port;
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        int requests = 0;
+        int failures = 0;
+
+        Double dolarVenta = fetchRate();
+        for (String path : dolarVenta != null ? ratePaths : List.<String>of()) {
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+            requests++;
+            if (!get(baseUrl, path, true)) {
+                failures++;
+                log.warn("[Warmup] Falló un path con cotización, se omiten los demás");
+                break;
+            }
+        }
+        warmLoop:
+        for (int i = 0; i < iterations; i++) {
+            if (dolarVenta != null) {
+                if (System.nanoTime() - deadline >= 0) {
+                    log.warn("[Warmup] Se cortó al llegar al tope de {}", timeout);
+                    break;
+                }
+                if (!priceCatalog(dolarVenta)) {
+                    dolarVenta = null;
+                }
+            }
+            for (String path : paths) {
+                if (System.nanoTime() - deadline >= 0) {
+                    log.warn("[Warmup] Se cortó al llegar al tope de {}", timeout);
+                    break warmLoop;
+                }
+                requests++;
+                if (!get(baseUrl, path, i == 0)) {
+                    failures++;
+                }
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        Timer.builder("techpricer.warmup")
+                .description("Warm-up de la instancia antes del ready")
+                .register(meterRegistry)
+                .record(Duration.ofNanos(elapsedNanos));
+        log.info("[Warmup] {} requests en {} ms ({} con error)", requests, elapsedNanos / 1_000_000, failures);
+    }
+
+    /** @return cotización oficial, o null si no se pudo obtener */
+    private Double fetchRate() {
+        try {
+            return dolarService.getDolarVenta();
+        } catch (RuntimeException e) {
+            log.warn("[Warmup] Sin cotización, se omite el camino de precios: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /** Precios del catálogo y su JSON, en proceso. @return false si falló */
+    private boolean priceCatalog(Double dolarVenta) {
+        try {
+            objectMapper.writeValueAsBytes(productService.getAllProductsWithCalculatedPrice(dolarVenta));
+            return true;
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("[Warmup] Cálculo de precios falló: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /** @return false si la request falló (se loguea solo si {@code logFailure}) */
+    private boolean get(String baseUrl, String path, boolean logFailure) {
+        try {
+            restTemplate.getForObject(baseUrl + path, byte[].class);
+            return true;
+        } catch (RestClientException e) {
+            if (logFailure) {
+                log.warn("[Warmup] GET {} falló: {}", path, e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private static List<String> splitPaths(String paths) {
+        return Arrays.stream(paths.split(",")).map(String::trim).filter(p -> !p.isEmpty()).toList();
+    }
+}
@@ -1,18 +1,35 @@
 package com.techpricer.controller;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.techpricer.model.GlobalConfig;
 import com.techpricer.model.Product;
 import com.techpricer.model.ProfitRule;
-import com.techpricer.repository.GlobalConfigRepository;
+import com.techpricer.service.CatalogExportService;
+import com.techpricer.service.CatalogExportService.Format;
 import com.techpricer.service.DolarService;
 import com.techpricer.service.DolarService.DollarRateUnavailableException;
+import com.techpricer.service.DolarService.UnknownRateTypeException;
+import com.techpricer.service.GlobalConfigService;
+import com.techpricer.service.ImportProfiler;
+import com.techpricer.service.PricingSimulationService;
+import com.techpricer.service.PricingSimulationService.SimulationRequest;
 import com.techpricer.service.ProductService;
 import com.techpricer.service.ProfitRuleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -20,25 +37,31 @@ import org.springframework.web.bind.annotation.*;
 public class AdminController {
 
     private final ProductService productService;
-    private final GlobalConfigRepository configRepository;
+    private final GlobalConfigService globalConfigService;
     private final DolarService dolarService;
     private final ProfitRuleService profitRuleService;
-
-    private GlobalConfig getConfig() {
-        return configRepository.findById(1L).orElseGet(() -> {
-            GlobalConfig c = GlobalConfig.builder().id(1L).profitPercentage(0.0).build();
-            return configRepository.save(c);
-        });
-    }
-
+    private final PricingSimulationService pricingSimulationService;
+    private final CatalogExportService catalogExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param profile con true, la respuesta incluye el perfil del import: tiempo
+     *                por etapa (unwrap, parse, persist, reprice), líneas por
+     *                segundo, líneas por camino del parser y las {@code slowest}
+     *                líneas más lentas
+     */
     @PostMapping("/import")
-    public ResponseEntity<?> importProducts(@RequestBody String rawText) {
+    public ResponseEntity<?> importProducts(@RequestBody String rawText,
+            @RequestParam(defaultValue = "false") boolean profile,
+            @RequestParam(defaultValue = "10") int slowest) {
         try {
             Double dolarVenta = dolarService.getDolarVenta();
-            productService.importProducts(rawText);
-            java.util.List<Product> calculatedProducts = productService.getAllProductsWithCalculatedPrice(dolarVenta);
-            return ResponseEntity
-                    .ok(new ErrorMessageResponse(true, "Products imported successfully", calculatedProducts));
+            ImportProfiler profiler = profile ? ImportProfiler.enabled(slowest) : ImportProfiler.disabled();
+            productService.importProducts(rawText, profiler);
+            java.util.List<Product> calculatedProducts = profiler.stage("reprice",
+                    () -> productService.getAllProductsWithCalculatedPrice(dolarVenta));
+            return ResponseEntity.ok(new ImportResponse(true, "Products imported successfully", calculatedProducts,
+                    profile ? profiler.report() : null));
         } catch (DollarRateUnavailableException e) {
             return ResponseEntity
                     .status(HttpStatus.SERVICE_UNAVAILABLE)
@@ -48,11 +71,7 @@ public class AdminController {
 
     @PostMapping("/config")
     public ResponseEntity<GlobalConfig> updateConfig(@RequestBody ConfigUpdateRequest request) {
-        GlobalConfig config = getConfig();
-        if (request.profitMargin() != null) {
-            config.setProfitPercentage(request.profitMargin());
-        }
-        configRepository.save(config);
+        GlobalConfig config = globalConfigService.updateProfitPercentage(request.profitMargin());
         return ResponseEntity.ok(config);
     }
 
@@ -76,10 +95,33 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    // ── Operaciones masivas (una sentencia por operación) ───────────────────────
+
     @DeleteMapping("/products")
-    public ResponseEntity<Void> deleteProducts(@RequestBody java.util.List<Long> ids) {
-        productService.deleteProducts(ids);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<BulkOperationResponse> deleteProducts(@RequestBody java.util.List<Long> ids) {
+        return ResponseEntity.ok(new BulkOperationResponse(productService.deleteProducts(ids)));
+    }
+
+    @DeleteMapping("/products/by-category")
+    public ResponseEntity<BulkOperationResponse> deleteProductsByCategory(@RequestParam("category") String category) {
+        return ResponseEntity.ok(new BulkOperationResponse(productService.deleteProductsByCategory(category)));
+    }
+
+    @PostMapping("/products/price-adjustment")
+    public ResponseEntity<?> adjustPrices(@RequestBody PriceAdjustmentRequest request) {
+        if (request.percentage() == null) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new ErrorMessageResponse(false, "percentage es obligatorio", null));
+        }
+        if (request.percentage() <= -100) {
+            // -100% o menos dejaría precios en cero o negativos
+            return ResponseEntity
+                    .badRequest()
+                    .body(new ErrorMessageResponse(false, "percentage debe ser mayor a -100", null));
+        }
+        int affected = productService.adjustPrices(request.category(), request.percentage());
+        return ResponseEntity.ok(new BulkOperationResponse(affected));
     }
 
     // ── Reglas de ganancia ──────────────────────────────────────────────────────
@@ -105,10 +147,103 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    // ── Simulación de precios ───────────────────────────────────────────────────
+
+    /**
+     * Evalúa reglas / margen / cotización candidatos sobre todo el catálogo sin
+     * persistir nada. Si no se manda dollarRate se usa la cotización actual (503
+     * si no está disponible).
+     */
+    @PostMapping("/pricing/simulate")
+    public ResponseEntity<?> simulatePricing(@RequestBody SimulationRequest request) {
+        try {
+            Double dolarVenta = dolarService.getDolarVenta();
+            return ResponseEntity.ok(pricingSimulationService.simulate(request, dolarVenta));
+        } catch (DollarRateUnavailableException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorMessageResponse(false, e.getMessage(), null));
+        }
+    }
+
+    // ── Exportación ─────────────────────────────────────────────────────────────
+
+    /**
+     * Descarga el catálogo con precios en CSV (por defecto) o XLSX. El archivo
+     * se escribe a medida que se lee la base, así que la respuesta arranca
+     * enseguida y no se arma entera en memoria.
+     *
+     * @param format csv | xlsx
+     * @param rates  opcional: "all" o lista de cotizaciones separadas por coma
+     *               (una columna de precio por cada una); por defecto, el oficial
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCatalog(@RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String rates) {
+        Format exportFormat;
+        try {
+            exportFormat = Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return exportError(HttpStatus.BAD_REQUEST, "format debe ser csv o xlsx");
+        }
+        Map<String, Double> selected;
+        try {
+            // Se resuelve antes de empezar a escribir: un error todavía puede ser un 4xx/503
+            selected = rates != null
+                    ? dolarService.getRates(rates)
+                    : Map.of(DolarService.RATE_TYPE, dolarService.getDolarVenta());
+        } catch (UnknownRateTypeException e) {
+            return exportError(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (DollarRateUnavailableException e) {
+            return exportError(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+
+        String extension = exportFormat.name().toLowerCase(Locale.ROOT);
+        MediaType contentType = exportFormat == Format.XLSX
+                ? MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        StreamingResponseBody body = out -> catalogExportService.export(exportFormat, selected, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("catalogo-" + LocalDate.now() + "." + extension)
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * Spring solo trata como streaming un ResponseEntity<StreamingResponseBody>
+     * (lo decide por el tipo declarado), así que los errores de la exportación
+     * también se escriben por esa vía.
+     */
+    private ResponseEntity<StreamingResponseBody> exportError(HttpStatus status, String message) {
+        ErrorMessageResponse error = new ErrorMessageResponse(false, message, null);
+        return ResponseEntity
+                .status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> objectMapper.writeValue(out, error));
+    }
+
     public record ConfigUpdateRequest(
             @JsonProperty("profitMargin") Double profitMargin) {
     }
 
+    /**
+     * @param category   categoría a ajustar; null = todo el catálogo
+     * @param percentage porcentaje a aplicar sobre el precio USD (ej: 10 = +10%);
+     *                   tiene que ser mayor a -100
+     */
+    public record PriceAdjustmentRequest(String category, Double percentage) {
+    }
+
+    public record BulkOperationResponse(int affected) {
+    }
+
     public record ErrorMessageResponse(boolean success, String message, java.util.List<Product> products) {
     }
+
+    public record ImportResponse(boolean success, String message, java.util.List<Product> products,
+            @JsonInclude(JsonInclude.Include.NON_NULL) ImportProfiler.Report profile) {
+    }
 }
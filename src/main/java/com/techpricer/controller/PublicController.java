@@ -3,15 +3,26 @@ package com.techpricer.controller;
 import com.techpricer.model.GlobalConfig;
 import com.techpricer.model.Product;
 import com.techpricer.repository.GlobalConfigRepository;
+import com.techpricer.service.CategoryAggregateService;
+import com.techpricer.service.CategoryAggregateService.CategoryAggregate;
 import com.techpricer.service.DolarService;
 import com.techpricer.service.DolarService.DollarRateUnavailableException;
+import com.techpricer.service.DolarService.UnknownRateTypeException;
+import com.techpricer.service.PriceHistoryService;
+import com.techpricer.service.ProductSearchIndex;
 import com.techpricer.service.ProductService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/public")
@@ -21,17 +32,87 @@ public class PublicController {
     private final ProductService productService;
     private final DolarService dolarService;
     private final GlobalConfigRepository configRepository;
+    private final CategoryAggregateService categoryAggregateService;
+    private final PriceHistoryService priceHistoryService;
+
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int DEFAULT_HISTORY_DAYS = 30;
+    private static final int MAX_HISTORY_DAYS = 731;
 
     /**
      * Devuelve todos los productos con su precio en ARS calculado en tiempo real.
+     * Con {@code rates} ("all" o una lista como "oficial,blue") cada producto trae
+     * además {@code pricesArs} con el precio en cada cotización pedida, y
+     * {@code finalPriceArs} es el del oficial (o el de la primera pedida).
      * Si no se puede obtener la cotización del dólar retorna HTTP 503.
      */
     @GetMapping("/products")
-    public ResponseEntity<?> getProducts() {
+    public ResponseEntity<?> getProducts(@RequestParam(value = "rates", required = false) String rates) {
+        try {
+            if (rates == null || rates.isBlank()) {
+                Double dolarVenta = dolarService.getDolarVenta();
+                List<Product> products = productService.getAllProductsWithCalculatedPrice(dolarVenta);
+                return ResponseEntity.ok(products);
+            }
+            Map<String, Double> selected = dolarService.getRates(rates);
+            return ResponseEntity.ok(productService.getAllProductsWithCalculatedPrices(selected,
+                    DolarService.primaryRate(selected)));
+        } catch (UnknownRateTypeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (DollarRateUnavailableException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Busca productos por nombre o categoría (coincidencias parciales, sin
+     * distinguir acentos ni mayúsculas), ordenados por relevancia y paginados.
+     * Acepta {@code rates} igual que /products.
+     * Si no se puede obtener la cotización del dólar retorna HTTP 503.
+     */
+    @GetMapping("/products/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "rates", required = false) String rates) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+            int pageNumber = Math.max(0, page);
+            ProductSearchIndex.SearchResult result;
+            if (rates == null || rates.isBlank()) {
+                Double dolarVenta = dolarService.getDolarVenta();
+                result = productService.searchProducts(query, pageNumber, pageSize, dolarVenta);
+            } else {
+                Map<String, Double> selected = dolarService.getRates(rates);
+                result = productService.searchProducts(query, pageNumber, pageSize, selected,
+                        DolarService.primaryRate(selected));
+            }
+            return ResponseEntity.ok(new SearchResponse(query, pageNumber, pageSize, result.total(),
+                    result.products()));
+        } catch (UnknownRateTypeException e) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(e.getMessage()));
+        } catch (DollarRateUnavailableException e) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ErrorResponse(e.getMessage()));
+        }
+    }
+
+    /**
+     * Devuelve cada categoría con su cantidad de productos y precio
+     * mínimo / máximo / promedio en USD y ARS. Los agregados se mantienen
+     * precalculados; solo la conversión a ARS depende de la cotización actual.
+     * Si no se puede obtener la cotización del dólar retorna HTTP 503.
+     */
+    @GetMapping("/categories")
+    public ResponseEntity<?> getCategories() {
         try {
             Double dolarVenta = dolarService.getDolarVenta();
-            List<Product> products = productService.getAllProductsWithCalculatedPrice(dolarVenta);
-            return ResponseEntity.ok(products);
+            List<CategoryAggregate> categories = categoryAggregateService.getAggregates(dolarVenta);
+            return ResponseEntity.ok(categories);
         } catch (DollarRateUnavailableException e) {
             return ResponseEntity
                     .status(HttpStatus.SERVICE_UNAVAILABLE)
@@ -60,11 +141,60 @@ public class PublicController {
         }
     }
 
+    /**
+     * Serie de la cotización del dólar oficial entre {@code from} y {@code to}
+     * (fechas ISO, inclusive; por defecto los últimos 30 días). Solo hay un punto
+     * por cada cambio de valor, más el valor vigente al inicio del rango.
+     */
+    @GetMapping("/history/dollar")
+    public ResponseEntity<?> getDollarHistory(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS);
+        String invalid = validateRange(start, end);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(invalid));
+        }
+        return ResponseEntity.ok(priceHistoryService.rateSeries(DolarService.RATE_TYPE, start, end));
+    }
+
+    /**
+     * Serie del precio USD de un producto (por nombre exacto), mismo criterio
+     * que /history/dollar.
+     */
+    @GetMapping("/history/products")
+    public ResponseEntity<?> getProductHistory(
+            @RequestParam("name") String name,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS);
+        String invalid = validateRange(start, end);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(new ErrorResponse(invalid));
+        }
+        return ResponseEntity.ok(priceHistoryService.productSeries(name, start, end));
+    }
+
+    private static String validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return "'from' debe ser anterior o igual a 'to'.";
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_HISTORY_DAYS) {
+            return "El rango no puede superar los " + MAX_HISTORY_DAYS + " días.";
+        }
+        return null;
+    }
+
     public record PublicConfigResponse(
             @com.fasterxml.jackson.annotation.JsonProperty("dollarRate") Double dollarRate,
             @com.fasterxml.jackson.annotation.JsonProperty("profitMargin") Double profitMargin) {
     }
 
+    public record SearchResponse(String query, int page, int size, long total, List<Product> products) {
+    }
+
     public record ErrorResponse(String error) {
     }
 }
@@ -0,0 +1,32 @@
+package com.techpricer.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Contador por tipo de dato cacheado en memoria ("catalog", "pricing"). Se
+ * incrementa en la misma transacción que el cambio, así las demás instancias
+ * saben que tienen que recargar.
+ */
+@Entity
+@Table(name = "cache_version")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheVersion {
+
+    @Id
+    private String name;
+
+    private Long version;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.techpricer.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Última cotización de un tipo (oficial, blue, ...) publicada por el nodo que
+ * tiene el lease, compartida por todas las instancias. {@code version} aumenta
+ * con cada publicación.
+ */
+@Entity
+@Table(name = "dollar_rate")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DollarRate {
+
+    @Id
+    private String rateType; // "oficial", "blue", ...
+
+    private Double venta;
+
+    private Instant fetchedAt;
+
+    private String updatedBy;
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,44 @@
+package com.techpricer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Observación de la cotización, solo cuando cambia respecto de la anterior.
+ * Valor en centavos de ARS; {@code bucketDay} = día UTC (epoch day), usado
+ * para el downsampling. Con la PK de solo {@code id} la tabla no se puede
+ * particionar por {@code bucket_day} (Postgres exige la columna de partición
+ * en la PK).
+ */
+@Entity
+@Table(name = "dollar_rate_history", indexes = {
+        @Index(name = "idx_rate_history_type_observed", columnList = "rate_type, observed_at"),
+        @Index(name = "idx_rate_history_bucket", columnList = "bucket_day")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DollarRateHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 20)
+    private String rateType;
+
+    @Column(nullable = false)
+    private long ventaCents;
+
+    @Column(nullable = false)
+    private Instant observedAt;
+
+    @Column(nullable = false)
+    private int bucketDay;
+}
@@ -4,14 +4,20 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -32,4 +38,10 @@ public class Product {
     // Storing it as per requirement, but ideally should be calculated or cached.
     // We will update this whenever we recalculate prices.
     private Double finalPriceArs;
+
+    // Precio en ARS por tipo de cotización (oficial, blue, ...). Solo se completa
+    // cuando el cliente pide varias cotizaciones (?rates=); no se persiste.
+    @Transient
+    @com.fasterxml.jackson.annotation.JsonInclude(com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL)
+    private Map<String, Double> pricesArs;
 }
@@ -0,0 +1,9 @@
+package com.techpricer.model;
+
+/**
+ * Proyección de solo lectura de un producto para la exportación: únicamente
+ * las columnas que se exportan, sin entidad administrada ni contexto de
+ * persistencia.
+ */
+public record ProductExportRow(Long id, String name, String category, Double originalPriceUsd) {
+}
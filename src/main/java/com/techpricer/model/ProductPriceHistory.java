@@ -0,0 +1,43 @@
+package com.techpricer.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Cambio de precio USD de un producto, identificado por nombre (los imports
+ * reemplazan el catálogo y los ids cambian). Solo se escribe cuando el precio
+ * difiere del último registrado. Precio en centavos de USD; {@code bucketDay}
+ * = día UTC (epoch day).
+ */
+@Entity
+@Table(name = "product_price_history", indexes = {
+        @Index(name = "idx_price_history_name_observed", columnList = "product_name, observed_at"),
+        @Index(name = "idx_price_history_bucket", columnList = "bucket_day")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String productName;
+
+    @Column(nullable = false)
+    private long priceUsdCents;
+
+    @Column(nullable = false)
+    private Instant observedAt;
+
+    @Column(nullable = false)
+    private int bucketDay;
+}
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "profit_rules")
+@Table(name = "profit_rules", indexes = {
+        @Index(name = "idx_profit_rules_category_min_price", columnList = "category, min_price_usd")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -27,6 +29,13 @@ public class ProfitRule {
      */
     private Double maxPriceUsd;
 
+    /**
+     * Categoría a la que aplica la regla (comparada sin distinguir mayúsculas,
+     * acentos ni emoji). null = aplica a todas las categorías.
+     * Una regla de categoría tiene precedencia sobre una general.
+     */
+    private String category;
+
     /**
      * Porcentaje de ganancia a aplicar (ej: 15 = 15%).
      */
@@ -0,0 +1,32 @@
+package com.techpricer.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Lease con vencimiento para coordinar tareas entre instancias: el nodo
+ * {@code holder} es el único que la ejecuta hasta {@code expiresAt}, salvo que
+ * renueve antes.
+ */
+@Entity
+@Table(name = "rate_lease")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLease {
+
+    @Id
+    private String name;
+
+    private String holder;
+
+    private Instant expiresAt;
+}
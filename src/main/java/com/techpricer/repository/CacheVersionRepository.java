@@ -0,0 +1,32 @@
+package com.techpricer.repository;
+
+import com.techpricer.model.CacheVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface CacheVersionRepository extends JpaRepository<CacheVersion, String> {
+
+    // Se une a la transacción del cambio
+    @Modifying
+    @Transactional
+    @Query("update CacheVersion c set c.version = c.version + 1, c.updatedAt = :now where c.name = :name")
+    int increment(@Param("name") String name, @Param("now") Instant now);
+
+    @Query("select c.version from CacheVersion c where c.name = :name")
+    Long findVersion(@Param("name") String name);
+
+    // INSERT directo: si dos nodos crean la fila a la vez uno falla por clave
+    // duplicada en vez de pisar el contador del otro.
+    @Modifying
+    @Transactional
+    @Query(value = "insert into cache_version (name, version, updated_at) values (:name, 0, :now)",
+            nativeQuery = true)
+    int insert(@Param("name") String name, @Param("now") Instant now);
+}
@@ -0,0 +1,35 @@
+package com.techpricer.repository;
+
+import com.techpricer.model.DollarRateHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DollarRateHistoryRepository extends JpaRepository<DollarRateHistory, Long> {
+
+    Optional<DollarRateHistory> findTopByRateTypeOrderByObservedAtDesc(String rateType);
+
+    // Valor vigente al inicio del rango, para que la serie arranque con dato
+    Optional<DollarRateHistory> findTopByRateTypeAndObservedAtLessThanOrderByObservedAtDesc(String rateType,
+            Instant before);
+
+    List<DollarRateHistory> findByRateTypeAndObservedAtGreaterThanEqualAndObservedAtLessThanOrderByObservedAtAsc(
+            String rateType, Instant from, Instant to);
+
+    // Downsampling: en los días anteriores a cutoffDay queda solo la última
+    // observación de cada día
+    @Modifying
+    @Transactional
+    @Query("delete from DollarRateHistory h where h.bucketDay < :cutoffDay and h.id < "
+            + "(select max(h2.id) from DollarRateHistory h2 "
+            + "where h2.rateType = h.rateType and h2.bucketDay = h.bucketDay)")
+    int downsampleBefore(@Param("cutoffDay") int cutoffDay);
+}
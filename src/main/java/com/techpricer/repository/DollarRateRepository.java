@@ -0,0 +1,9 @@
+package com.techpricer.repository;
+
+import com.techpricer.model.DollarRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DollarRateRepository extends JpaRepository<DollarRate, String> {
+}
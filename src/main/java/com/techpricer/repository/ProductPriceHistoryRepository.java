@@ -0,0 +1,35 @@
+package com.techpricer.repository;
+
+import com.techpricer.model.ProductPriceHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProductPriceHistoryRepository extends JpaRepository<ProductPriceHistory, Long> {
+
+    // Último precio registrado de cada producto (ids crecientes en el tiempo)
+    @Query("select h from ProductPriceHistory h where h.id in "
+            + "(select max(h2.id) from ProductPriceHistory h2 group by h2.productName)")
+    List<ProductPriceHistory> findLatestPerProduct();
+
+    Optional<ProductPriceHistory> findTopByProductNameAndObservedAtLessThanOrderByObservedAtDesc(String productName,
+            Instant before);
+
+    List<ProductPriceHistory> findByProductNameAndObservedAtGreaterThanEqualAndObservedAtLessThanOrderByObservedAtAsc(
+            String productName, Instant from, Instant to);
+
+    @Modifying
+    @Transactional
+    @Query("delete from ProductPriceHistory h where h.bucketDay < :cutoffDay and h.id < "
+            + "(select max(h2.id) from ProductPriceHistory h2 "
+            + "where h2.productName = h.productName and h2.bucketDay = h.bucketDay)")
+    int downsampleBefore(@Param("cutoffDay") int cutoffDay);
+}
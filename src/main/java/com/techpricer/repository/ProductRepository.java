@@ -1,9 +1,49 @@
 package com.techpricer.repository;
 
 import com.techpricer.model.Product;
+import com.techpricer.model.ProductExportRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    // Operaciones masivas: una sola sentencia DELETE / UPDATE, sin cargar
+    // entidades. El llamador se encarga de partir listas IN muy grandes.
+
+    @Modifying
+    @Query("delete from Product p where p.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Product p where p.category = :category")
+    int deleteByCategory(@Param("category") String category);
+
+    @Modifying
+    @Query("update Product p set p.originalPriceUsd = round(p.originalPriceUsd * :factor, 2) "
+            + "where p.originalPriceUsd is not null")
+    int scaleAllPrices(@Param("factor") double factor);
+
+    @Modifying
+    @Query("update Product p set p.originalPriceUsd = round(p.originalPriceUsd * :factor, 2) "
+            + "where p.category = :category and p.originalPriceUsd is not null")
+    int scalePricesByCategory(@Param("category") String category, @Param("factor") double factor);
+
+    /**
+     * Página de la exportación por keyset: los productos con id mayor a
+     * {@code afterId}, en orden de id. A diferencia de OFFSET, el costo de cada
+     * página no crece con la posición, y cada página es una consulta corta e
+     * independiente (no hay una transacción abierta durante toda la descarga).
+     * Solo se usa el tamaño del {@code page}.
+     */
+    @Query("select new com.techpricer.model.ProductExportRow(p.id, p.name, p.category, p.originalPriceUsd) "
+            + "from Product p where p.id > :afterId order by p.id")
+    List<ProductExportRow> findExportPage(@Param("afterId") long afterId, Pageable page);
 }
@@ -0,0 +1,46 @@
+package com.techpricer.repository;
+
+import com.techpricer.model.RateLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface RateLeaseRepository extends JpaRepository<RateLease, String> {
+
+    // Toma o renueva el lease en una sola sentencia condicional: solo gana si
+    // ya era del nodo o si el anterior dueño lo dejó vencer. 1 = lease obtenido.
+    @Modifying
+    @Transactional
+    @Query("update RateLease l set l.holder = :holder, l.expiresAt = :expiresAt "
+            + "where l.name = :name and (l.holder = :holder or l.expiresAt < :now)")
+    int tryAcquire(@Param("name") String name, @Param("holder") String holder,
+            @Param("expiresAt") Instant expiresAt, @Param("now") Instant now);
+
+    // INSERT directo (no save/merge) para que, si dos nodos crean la fila a la
+    // vez, uno falle por clave duplicada en vez de pisar al otro.
+    @Modifying
+    @Transactional
+    @Query(value = "insert into rate_lease (name, holder, expires_at) values (:name, :holder, :expiresAt)",
+            nativeQuery = true)
+    int insert(@Param("name") String name, @Param("holder") String holder, @Param("expiresAt") Instant expiresAt);
+
+    // Confirma dentro de la transacción en curso que el lease sigue siendo del
+    // nodo y vigente. El UPDATE (sin cambios) deja la fila bloqueada hasta el
+    // commit, así nadie lo toma mientras se publica. 1 = sigue siendo dueño.
+    @Modifying
+    @Transactional
+    @Query("update RateLease l set l.expiresAt = l.expiresAt "
+            + "where l.name = :name and l.holder = :holder and l.expiresAt > :now")
+    int confirmHolder(@Param("name") String name, @Param("holder") String holder, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("update RateLease l set l.expiresAt = :now where l.name = :name and l.holder = :holder")
+    int release(@Param("name") String name, @Param("holder") String holder, @Param("now") Instant now);
+}
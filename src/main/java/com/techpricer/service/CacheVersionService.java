@@ -0,0 +1,162 @@
+package com.techpricer.service;
+
+import com.techpricer.config.ReplicaRoutingDataSource;
+import com.techpricer.model.CacheVersion;
+import com.techpricer.repository.CacheVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invalidación de caches entre instancias.
+ *
+ * Cada CatalogChangedEvent / PricingChangedEvent local incrementa la fila
+ * correspondiente de cache_version dentro de la misma transacción que el
+ * cambio (import, CRUD de reglas, config, operaciones masivas): si la
+ * transacción se revierte, la versión tampoco cambia.
+ *
+ * Cada nodo lee las dos filas cada poll-interval (una consulta chica, contra
+ * el primario) y, si alguna avanzó por un cambio hecho en otra instancia,
+ * publica localmente un CatalogChangedEvent.remoteReload() o un
+ * PricingChangedEvent(REMOTE) para que el índice de búsqueda, los agregados y
+ * el índice de reglas se recarguen. El retraso máximo es poll-interval más el
+ * tiempo de recarga.
+ */
+@Service
+@Slf4j
+public class CacheVersionService {
+
+    public static final String CATALOG = "catalog";
+    public static final String PRICING = "pricing";
+
+    private final CacheVersionRepository cacheVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+
+    // Última versión vista por el poller
+    private final Map<String, Long> lastSeen = new ConcurrentHashMap<>();
+    // Versiones generadas (y commiteadas) por este nodo: no hace falta recargar
+    private final Map<String, Set<Long>> ownVersions = new ConcurrentHashMap<>();
+
+    public CacheVersionService(CacheVersionRepository cacheVersionRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${app.cache.invalidation.enabled:true}") boolean enabled) {
+        this.cacheVersionRepository = cacheVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        for (String name : List.of(CATALOG, PRICING)) {
+            if (!cacheVersionRepository.existsById(name)) {
+                try {
+                    cacheVersionRepository.insert(name, Instant.now());
+                } catch (DataIntegrityViolationException e) {
+                    // la creó otra instancia al mismo tiempo
+                }
+            }
+        }
+        poll();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!event.remote()) {
+            bump(CATALOG);
+        }
+    }
+
+    @EventListener
+    public void onPricingChanged(PricingChangedEvent event) {
+        if (!event.isRemote()) {
+            bump(PRICING);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval:PT2S}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        List<CacheVersion> versions = ReplicaRoutingDataSource.pinToPrimary(cacheVersionRepository::findAll);
+        for (CacheVersion current : versions) {
+            String name = current.getName();
+            long version = current.getVersion() != null ? current.getVersion() : 0L;
+            Long previous = lastSeen.put(name, version);
+            if (previous == null || version <= previous) {
+                continue; // primera lectura o sin cambios
+            }
+            if (!onlyOwnChanges(name, previous, version)) {
+                log.info("[CacheVersion] {} cambió en otra instancia (v{} → v{}), recargando", name, previous,
+                        version);
+                publishRemoteChange(name);
+            }
+        }
+    }
+
+    private void bump(String name) {
+        if (!enabled) {
+            return;
+        }
+        if (cacheVersionRepository.increment(name, Instant.now()) == 0) {
+            log.warn("[CacheVersion] No existe la fila '{}' en cache_version", name);
+            return;
+        }
+        Long version = cacheVersionRepository.findVersion(name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Solo se registra si se commitea: una versión revertida puede
+            // reutilizarla otra instancia y esa sí hay que recargarla.
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registerOwn(name, version);
+                }
+            });
+        } else {
+            registerOwn(name, version);
+        }
+    }
+
+    private void registerOwn(String name, Long version) {
+        ownVersions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet()).add(version);
+    }
+
+    /** ¿Todas las versiones en (previous, current] las generó este nodo? */
+    private boolean onlyOwnChanges(String name, long previous, long current) {
+        Set<Long> own = ownVersions.computeIfAbsent(name, k -> ConcurrentHashMap.newKeySet());
+        boolean allOwn = true;
+        for (long v = previous + 1; v <= current; v++) {
+            if (!own.contains(v)) {
+                allOwn = false;
+                break;
+            }
+        }
+        own.removeIf(v -> v <= current);
+        return allOwn;
+    }
+
+    private void publishRemoteChange(String name) {
+        switch (name) {
+            case CATALOG -> eventPublisher.publishEvent(CatalogChangedEvent.remoteReload());
+            case PRICING -> eventPublisher.publishEvent(new PricingChangedEvent(PricingChangedEvent.REMOTE));
+            default -> log.debug("[CacheVersion] Versión '{}' sin cache asociada", name);
+        }
+    }
+}
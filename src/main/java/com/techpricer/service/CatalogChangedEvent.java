@@ -0,0 +1,49 @@
+package com.techpricer.service;
+
+import com.techpricer.model.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evento publicado por ProductService cada vez que cambia el catálogo, para que
+ * las estructuras en memoria (índice de búsqueda, agregados, etc.) se
+ * actualicen de forma incremental sin volver a leer toda la tabla.
+ *
+ * - REPLACED: el catálogo completo fue reemplazado por {@code products}
+ * (import).
+ * - UPSERTED: {@code products} fueron agregados o modificados.
+ * - REMOVED: se eliminaron los productos con {@code removedIds}.
+ * - RELOAD: cambió algo que no se puede describir producto a producto; los
+ * listeners deben recargar desde la base.
+ *
+ * {@code remote} = el cambio se hizo en otra instancia y se detectó por
+ * cache_version (ver CacheVersionService); no vuelve a incrementar la versión.
+ */
+public record CatalogChangedEvent(Kind kind, List<Product> products, Collection<Long> removedIds,
+        boolean remote) {
+
+    public enum Kind {
+        REPLACED, UPSERTED, REMOVED, RELOAD
+    }
+
+    public static CatalogChangedEvent replaced(List<Product> products) {
+        return new CatalogChangedEvent(Kind.REPLACED, products, List.of(), false);
+    }
+
+    public static CatalogChangedEvent upserted(List<Product> products) {
+        return new CatalogChangedEvent(Kind.UPSERTED, products, List.of(), false);
+    }
+
+    public static CatalogChangedEvent removed(Collection<Long> ids) {
+        return new CatalogChangedEvent(Kind.REMOVED, List.of(), ids, false);
+    }
+
+    public static CatalogChangedEvent reload() {
+        return new CatalogChangedEvent(Kind.RELOAD, List.of(), List.of(), false);
+    }
+
+    public static CatalogChangedEvent remoteReload() {
+        return new CatalogChangedEvent(Kind.RELOAD, List.of(), List.of(), true);
+    }
+}
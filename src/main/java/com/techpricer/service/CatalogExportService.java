@@ -0,0 +1,354 @@
+package com.techpricer.service;
+
+import com.techpricer.model.ProductExportRow;
+import com.techpricer.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exportación del catálogo con precios en CSV o XLSX, escrita directo sobre el
+ * stream de la respuesta.
+ *
+ * Los productos se leen por keyset ({@code id > último id}) de a
+ * {@code app.export.page-size} filas, cada página en su propia consulta corta,
+ * y los precios se calculan al vuelo con un snapshot de reglas, margen global
+ * y cotizaciones tomado al empezar. En memoria hay como mucho una página, así
+ * que exportar 500k productos usa lo mismo que exportar 500.
+ *
+ * El XLSX se arma a mano (un zip con el XML mínimo de SpreadsheetML, celdas
+ * inline) para poder escribir la hoja fila por fila sin dependencias extra.
+ */
+@Service
+@Slf4j
+public class CatalogExportService {
+
+    public enum Format {
+        CSV, XLSX
+    }
+
+    private static final byte[] UTF8_BOM = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+    private static final String SHEET_NAME = "Catalogo";
+
+    private final ProductRepository productRepository;
+    private final ProfitRuleService profitRuleService;
+    private final GlobalConfigService globalConfigService;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+
+    public CatalogExportService(ProductRepository productRepository,
+            ProfitRuleService profitRuleService,
+            GlobalConfigService globalConfigService,
+            MeterRegistry meterRegistry,
+            @Value("${app.export.page-size:1000}") int pageSize) {
+        this.productRepository = productRepository;
+        this.profitRuleService = profitRuleService;
+        this.globalConfigService = globalConfigService;
+        this.meterRegistry = meterRegistry;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Escribe el catálogo completo en {@code out}. No cierra el stream.
+     *
+     * @param rates cotizaciones a exportar, una columna de precio ARS por cada
+     *              una, en ese orden
+     * @return cantidad de productos exportados
+     */
+    public long export(Format format, Map<String, Double> rates, OutputStream out) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long rows = format == Format.XLSX ? writeXlsx(rates, out) : writeCsv(rates, out);
+        long elapsedMs = sample.stop(Timer.builder("techpricer.export")
+                .description("Exportación completa del catálogo")
+                .tag("format", format.name().toLowerCase())
+                .register(meterRegistry)) / 1_000_000;
+        log.info("[Export] {} productos exportados en {} ({} ms)", rows, format, elapsedMs);
+        return rows;
+    }
+
+    // ── CSV ───────────────────────────────────────────────────────────────────
+
+    /**
+     * CSV RFC 4180 en UTF-8 con BOM (para que Excel respete los acentos),
+     * separador coma y punto decimal.
+     */
+    private long writeCsv(Map<String, Double> rates, OutputStream out) throws IOException {
+        out.write(UTF8_BOM);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        StringBuilder line = new StringBuilder(256);
+        for (String column : header(rates)) {
+            appendCsvField(line, column);
+            line.append(',');
+        }
+        line.setLength(line.length() - 1);
+        line.append("\r\n");
+        writer.append(line);
+
+        long rows = forEachRow(rates, new RowWriter() {
+            @Override
+            public void row(ProductExportRow product, double[] pricesArs) throws IOException {
+                line.setLength(0);
+                line.append(product.id()).append(',');
+                appendCsvField(line, product.name());
+                line.append(',');
+                appendCsvField(line, product.category());
+                line.append(',');
+                if (product.originalPriceUsd() != null) {
+                    appendMoney(line, product.originalPriceUsd());
+                }
+                for (double price : pricesArs) {
+                    line.append(',');
+                    if (!Double.isNaN(price)) {
+                        appendMoney(line, price);
+                    }
+                }
+                line.append("\r\n");
+                writer.append(line);
+            }
+
+            @Override
+            public void endPage() throws IOException {
+                writer.flush();
+            }
+        });
+        writer.flush();
+        return rows;
+    }
+
+    /**
+     * Campo CSV, entre comillas solo si hace falta. Los textos que Excel tomaría
+     * como fórmula (empiezan con =, +, -, @, tab o CR) salen con un apóstrofo
+     * adelante: nombres y categorías vienen de las listas de los proveedores.
+     */
+    static void appendCsvField(StringBuilder sb, String value) {
+        if (value == null) {
+            return;
+        }
+        if (!value.isEmpty() && isFormulaTrigger(value.charAt(0))) {
+            value = "'" + value;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            sb.append(value);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        sb.append('"');
+    }
+
+    private static boolean isFormulaTrigger(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+
+    // ── XLSX ──────────────────────────────────────────────────────────────────
+
+    private long writeXlsx(Map<String, Double> rates, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), 64 * 1024);
+
+        putEntry(zip, writer, "[Content_Types].xml", """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <Types xmlns="http://schemas.openxmlformats.org/package/2006/content-types">\
+                <Default Extension="rels" ContentType="application/vnd.openxmlformats-package.relationships+xml"/>\
+                <Default Extension="xml" ContentType="application/xml"/>\
+                <Override PartName="/xl/workbook.xml" \
+                ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml"/>\
+                <Override PartName="/xl/worksheets/sheet1.xml" \
+                ContentType="application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml"/>\
+                </Types>""");
+        putEntry(zip, writer, "_rels/.rels", """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+                <Relationship Id="rId1" \
+                Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument" \
+                Target="xl/workbook.xml"/></Relationships>""");
+        putEntry(zip, writer, "xl/workbook.xml", """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <workbook xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" \
+                xmlns:r="http://schemas.openxmlformats.org/officeDocument/2006/relationships">\
+                <sheets><sheet name="%s" sheetId="1" r:id="rId1"/></sheets></workbook>""".formatted(SHEET_NAME));
+        putEntry(zip, writer, "xl/_rels/workbook.xml.rels", """
+                <?xml version="1.0" encoding="UTF-8" standalone="yes"?>
+                <Relationships xmlns="http://schemas.openxmlformats.org/package/2006/relationships">\
+                <Relationship Id="rId1" \
+                Type="http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet" \
+                Target="worksheets/sheet1.xml"/></Relationships>""");
+
+        zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        StringBuilder row = new StringBuilder(512);
+        row.append("<row>");
+        for (String column : header(rates)) {
+            appendXlsxText(row, column);
+        }
+        row.append("</row>");
+        writer.append(row);
+
+        long rows = forEachRow(rates, new RowWriter() {
+            @Override
+            public void row(ProductExportRow product, double[] pricesArs) throws IOException {
+                row.setLength(0);
+                row.append("<row><c><v>").append(product.id()).append("</v></c>");
+                appendXlsxText(row, product.name());
+                appendXlsxText(row, product.category());
+                appendXlsxNumber(row, product.originalPriceUsd() != null ? product.originalPriceUsd() : Double.NaN);
+                for (double price : pricesArs) {
+                    appendXlsxNumber(row, price);
+                }
+                row.append("</row>");
+                writer.append(row);
+            }
+
+            @Override
+            public void endPage() throws IOException {
+                writer.flush();
+            }
+        });
+        writer.write("</sheetData></worksheet>");
+        writer.flush();
+        zip.closeEntry();
+        zip.finish();
+        return rows;
+    }
+
+    private static void putEntry(ZipOutputStream zip, Writer writer, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static void appendXlsxText(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("<c/>");
+            return;
+        }
+        sb.append("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> {
+                    // Caracteres de control no permitidos en XML 1.0
+                    if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append("</t></is></c>");
+    }
+
+    private static void appendXlsxNumber(StringBuilder sb, double value) {
+        if (Double.isNaN(value)) {
+            sb.append("<c/>");
+            return;
+        }
+        sb.append("<c><v>");
+        appendMoney(sb, value);
+        sb.append("</v></c>");
+    }
+
+    // ── Recorrido por keyset ────────────────────────────────────────────────────
+
+    private interface RowWriter {
+        /** Escribe una fila; {@code pricesArs} trae NaN donde no hay precio. */
+        void row(ProductExportRow product, double[] pricesArs) throws IOException;
+
+        /** Fin de una página: se empuja lo escrito al cliente. */
+        void endPage() throws IOException;
+    }
+
+    private long forEachRow(Map<String, Double> rates, RowWriter rowWriter) throws IOException {
+        ProfitRuleIndex ruleIndex = profitRuleService.getRuleIndex();
+        double globalMarkup = globalConfigService.getGlobalMarkup();
+        double[] rateValues = rates.values().stream().mapToDouble(Double::doubleValue).toArray();
+        double[] pricesArs = new double[rateValues.length];
+
+        long rows = 0;
+        long afterId = 0;
+        PageRequest page = PageRequest.ofSize(pageSize);
+        while (true) {
+            List<ProductExportRow> products = productRepository.findExportPage(afterId, page);
+            for (ProductExportRow product : products) {
+                Double usd = product.originalPriceUsd();
+                if (usd != null) {
+                    Double resolvedMarkup = profitRuleService.resolveProfit(usd, product.category(), ruleIndex);
+                    double factor = 1 + (resolvedMarkup != null ? resolvedMarkup : globalMarkup) / 100;
+                    for (int i = 0; i < rateValues.length; i++) {
+                        pricesArs[i] = round2((usd * rateValues[i]) * factor);
+                    }
+                } else {
+                    Arrays.fill(pricesArs, Double.NaN);
+                }
+                rowWriter.row(product, pricesArs);
+                rows++;
+            }
+            rowWriter.endPage();
+            if (products.size() < pageSize) {
+                return rows;
+            }
+            afterId = products.get(products.size() - 1).id();
+        }
+    }
+
+    private static List<String> header(Map<String, Double> rates) {
+        List<String> columns = new ArrayList<>(List.of("id", "nombre", "categoria", "precio_usd"));
+        rates.keySet().forEach(type -> columns.add("precio_ars_" + type));
+        return columns;
+    }
+
+    // Misma fórmula y redondeo que ProductService
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * Importe con dos decimales, sin notación científica (Double.toString
+     * pasa a "1.0E7" desde diez millones) y sin pasar por String.format.
+     */
+    static void appendMoney(StringBuilder sb, double value) {
+        long cents = Math.round(value * 100.0);
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+}
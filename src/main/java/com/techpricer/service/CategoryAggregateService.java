@@ -0,0 +1,252 @@
+package com.techpricer.service;
+
+import com.techpricer.config.ReplicaRoutingDataSource;
+import com.techpricer.model.Product;
+import com.techpricer.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mantiene en memoria, por categoría, la cantidad de productos y el
+ * mínimo / máximo / promedio de precio en USD y en ARS.
+ *
+ * Los agregados se actualizan de forma incremental con cada CatalogChangedEvent
+ * (import, alta, baja). Para ARS se guarda el precio USD ya multiplicado por el
+ * markup de cada producto, así que al consultar alcanza con multiplicar por la
+ * cotización del momento. Si cambian las reglas o el margen global
+ * (PricingChangedEvent) solo se recalcula ese valor, sin volver a leer el
+ * catálogo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryAggregateService {
+
+    private final ProductRepository productRepository;
+    private final ProfitRuleService profitRuleService;
+    private final GlobalConfigService globalConfigService;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Stats> statsByCategory = new TreeMap<>();
+
+    // Antes del warm-up (StartupWarmup), que ya usa lo cargado acá
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void loadOnStartup() {
+        rebuild(productRepository.findAll());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.kind()) {
+            case REPLACED -> rebuild(event.products());
+            case UPSERTED -> upsertAll(event.products());
+            case REMOVED -> removeAll(event.removedIds());
+            // Se lee del primario: la réplica puede no tener todavía el cambio
+            case RELOAD -> rebuild(ReplicaRoutingDataSource.pinToPrimary(() -> productRepository.findAll()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingChanged(PricingChangedEvent event) {
+        MarkupResolver markups = currentMarkups();
+        lock.writeLock().lock();
+        try {
+            List<Entry> current = new ArrayList<>(entries.values());
+            entries.clear();
+            statsByCategory.clear();
+            for (Entry entry : current) {
+                add(entry.id(), entry.category(), entry.priceUsd(), markups);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("[CategoryAggregates] Markups recalculados por cambio en {}", event.source());
+    }
+
+    public void rebuild(List<Product> products) {
+        MarkupResolver markups = currentMarkups();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            statsByCategory.clear();
+            for (Product product : products) {
+                add(product.getId(), product.getCategory(), product.getOriginalPriceUsd(), markups);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[CategoryAggregates] {} productos en {} categorías", products.size(), statsByCategory.size());
+    }
+
+    public void upsertAll(List<Product> products) {
+        MarkupResolver markups = currentMarkups();
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (product != null && product.getId() != null) {
+                    remove(product.getId());
+                    add(product.getId(), product.getCategory(), product.getOriginalPriceUsd(), markups);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los agregados de todas las categorías, ordenadas por nombre.
+     *
+     * @param dolarVenta cotización obtenida previamente por el controller.
+     */
+    public List<CategoryAggregate> getAggregates(Double dolarVenta) {
+        lock.readLock().lock();
+        try {
+            List<CategoryAggregate> result = new ArrayList<>(statsByCategory.size());
+            statsByCategory.forEach((category, stats) -> result.add(stats.toAggregate(category, dolarVenta)));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ── Internos (requieren el write lock tomado) ───────────────────────────────
+
+    private void add(Long id, String category, Double priceUsd, MarkupResolver markups) {
+        if (id == null) {
+            return;
+        }
+        String key = category != null ? category : "";
+        Double markedUpUsd = priceUsd != null ? priceUsd * (1 + markups.resolve(priceUsd, category) / 100) : null;
+        Entry entry = new Entry(id, category, priceUsd, markedUpUsd);
+        entries.put(id, entry);
+        statsByCategory.computeIfAbsent(key, k -> new Stats()).add(entry);
+    }
+
+    private void remove(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        String key = entry.category() != null ? entry.category() : "";
+        Stats stats = statsByCategory.get(key);
+        if (stats != null) {
+            stats.remove(entry);
+            if (stats.productCount == 0) {
+                statsByCategory.remove(key);
+            }
+        }
+    }
+
+    private MarkupResolver currentMarkups() {
+        // Se compila de nuevo en vez de usar el índice cacheado, que puede no
+        // haberse invalidado todavía cuando llega el PricingChangedEvent. Se lee
+        // del primario por si la réplica todavía no tiene el cambio.
+        ProfitRuleIndex ruleIndex = ReplicaRoutingDataSource.pinToPrimary(
+                () -> ProfitRuleIndex.compile(profitRuleService.getAllRules()));
+        double globalMarkup = ReplicaRoutingDataSource.pinToPrimary(globalConfigService::getGlobalMarkup);
+        return (priceUsd, category) -> {
+            Double resolved = ruleIndex.resolve(priceUsd, category);
+            return resolved != null ? resolved : globalMarkup;
+        };
+    }
+
+    @FunctionalInterface
+    private interface MarkupResolver {
+        double resolve(double priceUsd, String category);
+    }
+
+    private record Entry(Long id, String category, Double priceUsd, Double markedUpUsd) {
+    }
+
+    /**
+     * Acumuladores de una categoría. Los precios se guardan en multisets ordenados
+     * para poder mantener mínimo y máximo también al eliminar.
+     */
+    private static final class Stats {
+        private int productCount;
+        private int pricedCount;
+        private double sumUsd;
+        private double sumMarkedUpUsd;
+        private final TreeMap<Double, Integer> usdPrices = new TreeMap<>();
+        private final TreeMap<Double, Integer> markedUpPrices = new TreeMap<>();
+
+        void add(Entry entry) {
+            productCount++;
+            if (entry.priceUsd() != null) {
+                pricedCount++;
+                sumUsd += entry.priceUsd();
+                sumMarkedUpUsd += entry.markedUpUsd();
+                usdPrices.merge(entry.priceUsd(), 1, Integer::sum);
+                markedUpPrices.merge(entry.markedUpUsd(), 1, Integer::sum);
+            }
+        }
+
+        void remove(Entry entry) {
+            productCount--;
+            if (entry.priceUsd() != null) {
+                pricedCount--;
+                sumUsd -= entry.priceUsd();
+                sumMarkedUpUsd -= entry.markedUpUsd();
+                decrement(usdPrices, entry.priceUsd());
+                decrement(markedUpPrices, entry.markedUpUsd());
+            }
+        }
+
+        CategoryAggregate toAggregate(String category, Double dolarVenta) {
+            if (pricedCount == 0) {
+                return new CategoryAggregate(category, productCount, null, null, null, null, null, null);
+            }
+            return new CategoryAggregate(category, productCount,
+                    round(usdPrices.firstKey()),
+                    round(usdPrices.lastKey()),
+                    round(sumUsd / pricedCount),
+                    round(markedUpPrices.firstKey() * dolarVenta),
+                    round(markedUpPrices.lastKey() * dolarVenta),
+                    round(sumMarkedUpUsd / pricedCount * dolarVenta));
+        }
+
+        private static void decrement(TreeMap<Double, Integer> prices, Double price) {
+            prices.computeIfPresent(price, (k, count) -> count > 1 ? count - 1 : null);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+
+    public record CategoryAggregate(
+            String category,
+            int productCount,
+            Double minPriceUsd,
+            Double maxPriceUsd,
+            Double avgPriceUsd,
+            Double minPriceArs,
+            Double maxPriceArs,
+            Double avgPriceArs) {
+    }
+}
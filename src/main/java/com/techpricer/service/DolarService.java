@@ -1,38 +1,212 @@
 package com.techpricer.service;
 
+import com.techpricer.model.DollarRate;
+import com.techpricer.repository.DollarRateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
- * Obtiene la cotización del dólar oficial directamente desde la API configurada
- * en cada llamada. No guarda ni cachea el valor en base de datos.
+ * Obtiene la cotización del dólar oficial. En modo local la consulta a la API
+ * configurada en cada llamada, sin cachearla; en modo lease la lee de la fila
+ * compartida de dollar_rate (ver más abajo). Las cotizaciones múltiples de
+ * {@link #getRates()} se cachean en memoria.
  *
  * Si la API no está disponible lanza DollarRateUnavailableException,
  * que el controller convierte en HTTP 503.
+ *
+ * Cada llamada se mide en el timer techpricer.dolar.fetch con el tag outcome
+ * (success / empty / error).
+ *
+ * Usa el HttpClient del JDK en vez de HttpURLConnection: sus llamadas
+ * bloqueantes no fijan el carrier cuando la request corre en un virtual thread
+ * (spring.threads.virtual.enabled).
+ *
+ * {@link #getRates()} trae en una sola llamada (app.dolar.rates-url) todas las
+ * cotizaciones de app.dolar.rate-types (oficial, blue, bolsa = MEP, tarjeta,
+ * ...) y las cachea juntas durante app.dolar.rates-cache-ttl, para que todas
+ * las de una respuesta sean del mismo momento.
+ *
+ * Con app.dolar.coordination=lease (varias instancias) solo el nodo que tiene
+ * el lease consulta la API (ver DollarRateLeaseScheduler) y publica todas las
+ * cotizaciones en dollar_rate, una fila por tipo; este servicio devuelve esas
+ * cotizaciones compartidas, así todos los nodos cotizan igual y el historial
+ * recibe cada valor una sola vez. Si no hay una publicada hace menos de
+ * app.dolar.lease.max-age consulta la API directamente, como en modo local,
+ * pero sin publicar DollarRateFetchedEvent (eso lo hace solo el dueño del
+ * lease).
  */
 @Service
 @Slf4j
 public class DolarService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    public static final String RATE_TYPE = "oficial";
+
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final DollarRateRepository dollarRateRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean leaseMode;
+    private final Duration sharedRateMaxAge;
+
+    // Últimas cotizaciones compartidas conocidas, por tipo (modo lease)
+    private volatile Map<String, DollarRate> sharedRates = Map.of();
+
+    // Todas las cotizaciones, cacheadas juntas. ReentrantLock y no synchronized:
+    // la llamada HTTP dentro del lock no debe fijar el carrier de un virtual thread.
+    private volatile RatesSnapshot ratesSnapshot;
+    private final ReentrantLock ratesLock = new ReentrantLock();
 
     @Value("${app.dolar.api-url}")
     private String apiUrl;
 
+    @Value("${app.dolar.rates-url:https://dolarapi.com/v1/dolares}")
+    private String ratesUrl;
+
+    @Value("${app.dolar.rate-types:oficial,blue,bolsa,tarjeta}")
+    private List<String> rateTypes;
+
+    @Value("${app.dolar.rates-cache-ttl:60s}")
+    private Duration ratesCacheTtl;
+
+    public DolarService(RestTemplateBuilder restTemplateBuilder, MeterRegistry meterRegistry,
+            DollarRateRepository dollarRateRepository, ApplicationEventPublisher eventPublisher,
+            @Value("${app.dolar.coordination:local}") String coordination,
+            @Value("${app.dolar.lease.max-age:10m}") Duration sharedRateMaxAge,
+            @Value("${app.dolar.connect-timeout:3s}") Duration connectTimeout,
+            @Value("${app.dolar.read-timeout:5s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        this.restTemplate = restTemplateBuilder.requestFactory(() -> requestFactory).build();
+        this.meterRegistry = meterRegistry;
+        this.dollarRateRepository = dollarRateRepository;
+        this.eventPublisher = eventPublisher;
+        this.leaseMode = "lease".equalsIgnoreCase(coordination);
+        this.sharedRateMaxAge = sharedRateMaxAge;
+    }
+
     /**
      * @return cotización de venta del dólar oficial (en ARS)
      * @throws DollarRateUnavailableException si la API no responde o devuelve datos
      *                                        inválidos
      */
     public Double getDolarVenta() {
+        if (leaseMode) {
+            DollarRate shared = freshSharedRates().get(RATE_TYPE);
+            if (shared != null) {
+                return shared.getVenta();
+            }
+            log.warn("[DolarService] Sin cotización compartida vigente, consultando la API directamente");
+            return fetchOficial(false);
+        }
+        return fetchFromApi();
+    }
+
+    /**
+     * Registra las cotizaciones leídas de dollar_rate; de cada tipo se ignora
+     * la fila si es más vieja (menor versión) que la que ya se conoce.
+     */
+    public void acceptSharedRates(Collection<DollarRate> rates) {
+        synchronized (this) {
+            Map<String, DollarRate> merged = new HashMap<>(sharedRates);
+            for (DollarRate rate : rates) {
+                if (rate == null || rate.getRateType() == null || rate.getVenta() == null
+                        || rate.getVersion() == null) {
+                    continue;
+                }
+                DollarRate current = merged.get(rate.getRateType());
+                if (current == null || rate.getVersion() > current.getVersion()) {
+                    merged.put(rate.getRateType(), rate);
+                }
+            }
+            sharedRates = Map.copyOf(merged);
+        }
+    }
+
+    /** Cotizaciones compartidas publicadas hace menos de app.dolar.lease.max-age. */
+    private Map<String, DollarRate> freshSharedRates() {
+        Map<String, DollarRate> rates = sharedRates;
+        if (rates.isEmpty()) {
+            // Recién arrancado: todavía no corrió el scheduler en este nodo
+            acceptSharedRates(dollarRateRepository.findAll());
+            rates = sharedRates;
+        }
+        Instant oldest = Instant.now().minus(sharedRateMaxAge);
+        Map<String, DollarRate> fresh = new HashMap<>();
+        rates.forEach((type, rate) -> {
+            if (rate.getFetchedAt() != null && !rate.getFetchedAt().isBefore(oldest)) {
+                fresh.put(type, rate);
+            }
+        });
+        return fresh;
+    }
+
+    /**
+     * Consulta la API de cotización, sin pasar por la cotización compartida.
+     *
+     * @throws DollarRateUnavailableException si la API no responde o devuelve datos
+     *                                        inválidos
+     */
+    public Double fetchFromApi() {
+        return fetchOficial(true);
+    }
+
+    /**
+     * Consulta la API por todos los tipos de app.dolar.rate-types más el oficial
+     * (para el dueño del lease). Si falla la llamada de todas las cotizaciones,
+     * trae al menos el oficial.
+     *
+     * @throws DollarRateUnavailableException si no se pudo obtener ni el oficial
+     */
+    public Map<String, Double> fetchAllFromApi() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        try {
+            rates.putAll(fetchAllRates(true));
+        } catch (DollarRateUnavailableException e) {
+            log.warn("[DolarService] Sin cotizaciones múltiples, se publica solo el oficial: {}", e.getMessage());
+        }
+        if (!rates.containsKey(RATE_TYPE)) {
+            rates.put(RATE_TYPE, fetchOficial(true));
+        }
+        return rates;
+    }
+
+    /** @param publish si publica DollarRateFetchedEvent (historial) */
+    private Double fetchOficial(boolean publish) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
             DolarApiResponse response = restTemplate.getForObject(apiUrl, DolarApiResponse.class);
             if (response != null && response.venta() != null) {
+                outcome = "success";
                 log.info("[DolarService] Cotización obtenida: ${}", response.venta());
+                if (publish) {
+                    eventPublisher.publishEvent(new DollarRateFetchedEvent(RATE_TYPE, response.venta(),
+                            Instant.now()));
+                }
                 return response.venta();
             }
+            outcome = "empty";
             throw new DollarRateUnavailableException("La API de cotización devolvió datos vacíos.");
         } catch (DollarRateUnavailableException e) {
             throw e;
@@ -40,16 +214,177 @@ public class DolarService {
             log.error("[DolarService] Error al obtener cotización desde {}: {}", apiUrl, e.getMessage());
             throw new DollarRateUnavailableException(
                     "No se pudo obtener la cotización del dólar. Verificá la conexión con la API de cotizaciones.");
+        } finally {
+            sample.stop(Timer.builder("techpricer.dolar.fetch")
+                    .description("Llamadas a la API de cotización del dólar")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return cotización de venta de cada tipo configurado en app.dolar.rate-types
+     *         que la API haya devuelto (en modo lease, que esté publicado en
+     *         dollar_rate), en el orden configurado.
+     * @throws DollarRateUnavailableException si la API no responde o no trae
+     *                                        ninguno de los tipos configurados
+     */
+    public Map<String, Double> getRates() {
+        if (leaseMode) {
+            Map<String, DollarRate> shared = freshSharedRates();
+            Map<String, Double> rates = new LinkedHashMap<>();
+            for (String type : rateTypes) {
+                if (shared.containsKey(type)) {
+                    rates.put(type, shared.get(type).getVenta());
+                }
+            }
+            if (!rates.isEmpty()) {
+                return Collections.unmodifiableMap(rates);
+            }
+            log.warn("[DolarService] Sin cotizaciones compartidas vigentes, consultando la API directamente");
+        }
+        RatesSnapshot snapshot = ratesSnapshot;
+        if (snapshot != null && snapshot.isFresh(ratesCacheTtl)) {
+            countRatesCache("hit");
+            return snapshot.rates();
+        }
+        ratesLock.lock();
+        try {
+            // Otro thread pudo haberlas traído mientras se esperaba el lock
+            snapshot = ratesSnapshot;
+            if (snapshot == null || !snapshot.isFresh(ratesCacheTtl)) {
+                countRatesCache("miss");
+                snapshot = new RatesSnapshot(fetchAllRates(!leaseMode), Instant.now());
+                ratesSnapshot = snapshot;
+            } else {
+                countRatesCache("hit");
+            }
+            return snapshot.rates();
+        } finally {
+            ratesLock.unlock();
+        }
+    }
+
+    private void countRatesCache(String result) {
+        meterRegistry.counter(ProfitRuleService.CACHE_REQUESTS_METRIC, "cache", "rates", "result", result)
+                .increment();
+    }
+
+    public List<String> getRateTypes() {
+        return rateTypes;
+    }
+
+    /**
+     * Selección de cotizaciones pedida por el cliente: "all" = todas las
+     * configuradas; si no, una lista separada por comas, en ese orden. Todas
+     * salen del mismo snapshot de {@link #getRates()}.
+     *
+     * @throws UnknownRateTypeException si algún tipo no está configurado
+     */
+    public Map<String, Double> getRates(String selection) {
+        List<String> requested = new ArrayList<>();
+        if ("all".equalsIgnoreCase(selection.trim())) {
+            requested.addAll(rateTypes);
+        } else {
+            for (String raw : selection.split(",")) {
+                String type = raw.trim().toLowerCase(Locale.ROOT);
+                if (type.isEmpty() || requested.contains(type)) {
+                    continue;
+                }
+                if (!rateTypes.contains(type)) {
+                    throw new UnknownRateTypeException("Tipo de cotización desconocido: '" + type
+                            + "'. Disponibles: " + String.join(", ", rateTypes) + ".");
+                }
+                requested.add(type);
+            }
+        }
+        Map<String, Double> fetched = getRates();
+        Map<String, Double> selected = new LinkedHashMap<>();
+        for (String type : requested) {
+            if (fetched.containsKey(type)) {
+                selected.put(type, fetched.get(type));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new DollarRateUnavailableException("La API de cotización no devolvió las cotizaciones pedidas.");
+        }
+        return selected;
+    }
+
+    /**
+     * @return la cotización "principal" de una selección: el oficial si está, si
+     *         no la primera.
+     */
+    public static String primaryRate(Map<String, Double> rates) {
+        return rates.containsKey(RATE_TYPE) ? RATE_TYPE : rates.keySet().iterator().next();
+    }
+
+    /** @param publish si publica DollarRateFetchedEvent (historial) */
+    private Map<String, Double> fetchAllRates(boolean publish) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            DolarApiRateResponse[] response = restTemplate.getForObject(ratesUrl, DolarApiRateResponse[].class);
+            Map<String, Double> rates = new LinkedHashMap<>();
+            if (response != null) {
+                for (String type : rateTypes) {
+                    for (DolarApiRateResponse rate : response) {
+                        if (type.equalsIgnoreCase(rate.casa()) && rate.venta() != null) {
+                            rates.put(type, rate.venta());
+                            break;
+                        }
+                    }
+                }
+            }
+            if (rates.isEmpty()) {
+                outcome = "empty";
+                throw new DollarRateUnavailableException("La API de cotización devolvió datos vacíos.");
+            }
+            outcome = "success";
+            if (publish) {
+                Instant now = Instant.now();
+                rates.forEach((type, venta) -> eventPublisher.publishEvent(
+                        new DollarRateFetchedEvent(type, venta, now)));
+            }
+            log.info("[DolarService] Cotizaciones obtenidas: {}", rates);
+            return Collections.unmodifiableMap(rates);
+        } catch (DollarRateUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("[DolarService] Error al obtener cotizaciones desde {}: {}", ratesUrl, e.getMessage());
+            throw new DollarRateUnavailableException(
+                    "No se pudo obtener la cotización del dólar. Verificá la conexión con la API de cotizaciones.");
+        } finally {
+            sample.stop(Timer.builder("techpricer.dolar.rates.fetch")
+                    .description("Llamadas a la API de todas las cotizaciones del dólar")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
         }
     }
 
     private record DolarApiResponse(Double compra, Double venta, String fechaActualizacion) {
     }
 
-    // ── Excepción de dominio ──────────────────────────────────────────────────
+    private record DolarApiRateResponse(String casa, String nombre, Double compra, Double venta,
+            String fechaActualizacion) {
+    }
+
+    private record RatesSnapshot(Map<String, Double> rates, Instant fetchedAt) {
+        boolean isFresh(Duration ttl) {
+            return fetchedAt.plus(ttl).isAfter(Instant.now());
+        }
+    }
+
+    // ── Excepciones de dominio ────────────────────────────────────────────────
     public static class DollarRateUnavailableException extends RuntimeException {
         public DollarRateUnavailableException(String message) {
             super(message);
         }
     }
+
+    public static class UnknownRateTypeException extends RuntimeException {
+        public UnknownRateTypeException(String message) {
+            super(message);
+        }
+    }
 }
@@ -0,0 +1,9 @@
+package com.techpricer.service;
+
+import java.time.Instant;
+
+/**
+ * Publicado por DolarService cada vez que obtiene una cotización de la API.
+ */
+public record DollarRateFetchedEvent(String rateType, double venta, Instant fetchedAt) {
+}
@@ -0,0 +1,209 @@
+package com.techpricer.service;
+
+import com.techpricer.model.DollarRate;
+import com.techpricer.repository.DollarRateRepository;
+import com.techpricer.repository.RateLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Modo app.dolar.coordination=lease: en cada heartbeat el nodo intenta tomar
+ * o renovar el lease "dolar-api" en rate_lease (UPDATE condicional). Solo el
+ * dueño del lease consulta la API, cada refresh-interval, y publica cada
+ * cotización (oficial y las de app.dolar.rate-types) en su fila de
+ * dollar_rate con una versión nueva; todos los nodos leen esas filas y se las
+ * pasan a DolarService. Todas las filas se escriben en una sola transacción
+ * que antes confirma que el lease sigue siendo del nodo; si otro nodo
+ * publicó al mismo tiempo, se descarta lo propio y se usan sus filas.
+ *
+ * Failover: si el dueño muere deja de renovar y, a más tardar ttl +
+ * heartbeat después, otro nodo toma el lease. Al apagarse ordenadamente lo
+ * libera para que el traspaso sea en el próximo heartbeat. Los vencimientos
+ * usan el reloj de cada nodo, que se asume sincronizado (NTP) con un desvío
+ * muy menor al ttl.
+ */
+@Component
+@ConditionalOnProperty(name = "app.dolar.coordination", havingValue = "lease")
+@Slf4j
+public class DollarRateLeaseScheduler {
+
+    static final String LEASE_NAME = "dolar-api";
+
+    private final RateLeaseRepository leaseRepository;
+    private final DollarRateRepository dollarRateRepository;
+    private final DolarService dolarService;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final Duration leaseTtl;
+    private final Duration refreshInterval;
+    private final Clock clock;
+
+    private volatile boolean leader;
+
+    @Autowired
+    public DollarRateLeaseScheduler(RateLeaseRepository leaseRepository, DollarRateRepository dollarRateRepository,
+            DolarService dolarService, PlatformTransactionManager transactionManager,
+            @Value("${app.node-id:}") String nodeId,
+            @Value("${app.dolar.lease.ttl:15s}") Duration leaseTtl,
+            @Value("${app.dolar.lease.refresh-interval:60s}") Duration refreshInterval) {
+        this(leaseRepository, dollarRateRepository, dolarService, transactionManager, nodeId, leaseTtl,
+                refreshInterval, Clock.systemUTC());
+    }
+
+    /**
+     * @param clock reloj para los vencimientos del lease y la antigüedad de la
+     *              cotización (los tests lo adelantan en vez de esperar)
+     */
+    DollarRateLeaseScheduler(RateLeaseRepository leaseRepository, DollarRateRepository dollarRateRepository,
+            DolarService dolarService, PlatformTransactionManager transactionManager, String nodeId,
+            Duration leaseTtl, Duration refreshInterval, Clock clock) {
+        this.leaseRepository = leaseRepository;
+        this.dollarRateRepository = dollarRateRepository;
+        this.dolarService = dolarService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        this.leaseTtl = leaseTtl;
+        this.refreshInterval = refreshInterval;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dolar.lease.heartbeat:PT5S}")
+    public void heartbeat() {
+        boolean wasLeader = leader;
+        leader = tryAcquireLease();
+        if (leader != wasLeader) {
+            log.info("[RateLease] Nodo {} {} el lease de la cotización", nodeId, leader ? "tomó" : "perdió");
+        }
+
+        Map<String, DollarRate> shared = readSharedRates();
+        if (leader && isStale(shared.get(DolarService.RATE_TYPE))) {
+            try {
+                publishFreshRates(shared);
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // Otro nodo escribió las filas en el medio (traspaso del lease): valen las suyas
+                log.info("[RateLease] Cotizaciones publicadas por otro nodo, se descartan las propias: {}",
+                        e.getMessage());
+                shared = readSharedRates();
+            }
+        }
+        dolarService.acceptSharedRates(shared.values());
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (leader) {
+            leaseRepository.release(LEASE_NAME, nodeId, clock.instant());
+            leader = false;
+        }
+    }
+
+    private boolean tryAcquireLease() {
+        Instant now = clock.instant();
+        Instant expiresAt = now.plus(leaseTtl);
+        try {
+            if (leaseRepository.tryAcquire(LEASE_NAME, nodeId, expiresAt, now) == 1) {
+                return true;
+            }
+            if (!leaseRepository.existsById(LEASE_NAME)) {
+                return leaseRepository.insert(LEASE_NAME, nodeId, expiresAt) == 1;
+            }
+            return false;
+        } catch (DataIntegrityViolationException e) {
+            // Otro nodo creó la fila al mismo tiempo: ese gana esta vuelta
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("[RateLease] No se pudo renovar el lease: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isStale(DollarRate shared) {
+        return shared == null || shared.getFetchedAt() == null
+                || !shared.getFetchedAt().isAfter(clock.instant().minus(refreshInterval));
+    }
+
+    private Map<String, DollarRate> readSharedRates() {
+        Map<String, DollarRate> shared = new LinkedHashMap<>();
+        for (DollarRate rate : dollarRateRepository.findAll()) {
+            shared.put(rate.getRateType(), rate);
+        }
+        return shared;
+    }
+
+    /**
+     * Trae todas las cotizaciones y actualiza (o crea) la fila de cada tipo, en
+     * una transacción que primero confirma el lease. La API se consulta fuera
+     * de la transacción. Si la escritura choca con la de otro nodo, lanza la
+     * excepción y {@code shared} queda como estaba.
+     */
+    private void publishFreshRates(Map<String, DollarRate> shared) {
+        Map<String, Double> rates;
+        try {
+            rates = dolarService.fetchAllFromApi();
+        } catch (DolarService.DollarRateUnavailableException e) {
+            return; // se reintenta en el próximo heartbeat
+        }
+        Instant now = clock.instant();
+        List<DollarRate> published = transactionTemplate.execute(status -> {
+            if (leaseRepository.confirmHolder(LEASE_NAME, nodeId, now) != 1) {
+                return null;
+            }
+            List<DollarRate> rows = new ArrayList<>();
+            rates.forEach((type, venta) -> {
+                DollarRate current = shared.get(type);
+                rows.add(DollarRate.builder()
+                        .rateType(type)
+                        .venta(venta)
+                        .fetchedAt(now)
+                        .updatedBy(nodeId)
+                        .version(current != null ? current.getVersion() : null)
+                        .build());
+            });
+            return dollarRateRepository.saveAllAndFlush(rows);
+        });
+        if (published == null) {
+            leader = false;
+            log.info("[RateLease] Nodo {} perdió el lease antes de publicar", nodeId);
+            return;
+        }
+        published.forEach(rate -> shared.put(rate.getRateType(), rate));
+        log.info("[RateLease] Cotizaciones publicadas: {}", rates);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
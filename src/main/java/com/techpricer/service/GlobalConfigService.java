@@ -0,0 +1,55 @@
+package com.techpricer.service;
+
+import com.techpricer.model.GlobalConfig;
+import com.techpricer.repository.GlobalConfigRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class GlobalConfigService {
+
+    private final GlobalConfigRepository configRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Devuelve la configuración singleton (id=1), creándola si no existe.
+     */
+    @Transactional
+    public GlobalConfig getConfig() {
+        return configRepository.findById(1L).orElseGet(() -> {
+            GlobalConfig c = GlobalConfig.builder().id(1L).profitPercentage(0.0).build();
+            return configRepository.save(c);
+        });
+    }
+
+    /**
+     * @return margen global de ganancia (0 si no está configurado). Solo lee: si
+     *         la configuración no existe todavía no la crea.
+     */
+    @Transactional(readOnly = true)
+    public double getGlobalMarkup() {
+        return configRepository.findById(1L)
+                .map(GlobalConfig::getProfitPercentage)
+                .orElse(0.0);
+    }
+
+    /**
+     * Actualiza el margen global. Si {@code profitMargin} es null no modifica
+     * nada.
+     */
+    @Transactional
+    public GlobalConfig updateProfitPercentage(Double profitMargin) {
+        GlobalConfig config = getConfig();
+        if (profitMargin != null) {
+            config.setProfitPercentage(profitMargin);
+            config.setLastUpdated(LocalDateTime.now());
+            eventPublisher.publishEvent(new PricingChangedEvent("config"));
+        }
+        return configRepository.save(config);
+    }
+}
@@ -0,0 +1,165 @@
+package com.techpricer.service;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+/**
+ * Perfil de un import de lista de proveedor: tiempo por etapa, cuántas líneas
+ * resolvió cada camino del parser y las líneas más lentas (para encontrar
+ * entradas que hacen trabajar de más a las regex de ProductService).
+ *
+ * Con {@link #disabled()} las llamadas por línea no hacen nada (ni siquiera
+ * leen el reloj), así que el import normal no paga el perfilado. No es
+ * thread-safe: uno por import.
+ */
+public final class ImportProfiler {
+
+    private static final int MAX_LINE_TEXT = 160;
+    private static final int MAX_SLOWEST = 100;
+
+    /** Camino del parser que resolvió una línea. */
+    public enum LinePath {
+        CATEGORY("category"),
+        PRODUCT("product"),
+        FORMAT_A("formatA"),
+        FORMAT_B("formatB"),
+        FORMAT_C("formatC"),
+        CSV("csvFallback"),
+        REJECTED("rejected"),
+        BLANK("blank");
+
+        private final String key;
+
+        LinePath(String key) {
+            this.key = key;
+        }
+
+        @JsonValue
+        public String key() {
+            return key;
+        }
+    }
+
+    private final boolean enabled;
+    private final int slowestLimit;
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final Map<LinePath, Integer> pathCounts = new EnumMap<>(LinePath.class);
+    // min-heap por duración: queda con las slowestLimit líneas más lentas
+    private final PriorityQueue<SlowLine> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowLine::nanos));
+    private int lines;
+    private int products;
+
+    private ImportProfiler(boolean enabled, int slowestLimit) {
+        this.enabled = enabled;
+        this.slowestLimit = Math.max(0, Math.min(slowestLimit, MAX_SLOWEST));
+    }
+
+    public static ImportProfiler disabled() {
+        return new ImportProfiler(false, 0);
+    }
+
+    /**
+     * @param slowestLimit cantidad de líneas más lentas a reportar (máximo 100)
+     */
+    public static ImportProfiler enabled(int slowestLimit) {
+        return new ImportProfiler(true, slowestLimit);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Mide una etapa (unwrap, parse, persist, reprice). */
+    public <T> T stage(String stage, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            stageNanos.merge(stage, System.nanoTime() - start, Long::sum);
+        }
+    }
+
+    /** @return el instante de inicio de una línea, o 0 si no se perfila. */
+    long lineStart() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Registra una línea ya resuelta.
+     *
+     * @param lineNumber número de línea (desde 1) en el texto ya desenvuelto
+     */
+    void line(int lineNumber, LinePath path, String text, long startNanos) {
+        if (!enabled) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        lines++;
+        pathCounts.merge(path, 1, Integer::sum);
+        if (slowestLimit > 0 && path != LinePath.BLANK
+                && (slowest.size() < slowestLimit || nanos > slowest.peek().nanos())) {
+            String shown = text.length() > MAX_LINE_TEXT ? text.substring(0, MAX_LINE_TEXT) + "…" : text;
+            slowest.add(new SlowLine(lineNumber, path, shown, nanos));
+            if (slowest.size() > slowestLimit) {
+                slowest.poll();
+            }
+        }
+    }
+
+    void products(int count) {
+        this.products = count;
+    }
+
+    public Report report() {
+        Map<String, Double> stagesMs = new LinkedHashMap<>();
+        long totalNanos = 0;
+        for (Map.Entry<String, Long> entry : stageNanos.entrySet()) {
+            stagesMs.put(entry.getKey(), millis(entry.getValue()));
+            totalNanos += entry.getValue();
+        }
+        Map<String, Integer> paths = new LinkedHashMap<>();
+        for (LinePath path : LinePath.values()) {
+            paths.put(path.key(), pathCounts.getOrDefault(path, 0));
+        }
+        long parseNanos = stageNanos.getOrDefault("parse", 0L);
+        double linesPerSecond = parseNanos > 0 ? Math.round(lines / (parseNanos / 1e9)) : 0;
+
+        List<SlowLine> slowLines = new ArrayList<>(slowest);
+        slowLines.sort(Comparator.comparingLong(SlowLine::nanos).reversed());
+        List<SlowLineReport> slowReport = slowLines.stream()
+                .map(l -> new SlowLineReport(l.lineNumber(), l.path(), Math.round(l.nanos() / 100.0) / 10.0,
+                        l.text()))
+                .toList();
+        return new Report(millis(totalNanos), stagesMs, lines, products, linesPerSecond, paths, slowReport);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private record SlowLine(int lineNumber, LinePath path, String text, long nanos) {
+    }
+
+    /**
+     * @param totalMs        suma de las etapas medidas
+     * @param linesPerSecond líneas por segundo de la etapa parse
+     * @param paths          líneas resueltas por cada camino del parser
+     */
+    public record Report(double totalMs, Map<String, Double> stagesMs, int lines, int products,
+            double linesPerSecond, Map<String, Integer> paths, List<SlowLineReport> slowestLines) {
+    }
+
+    public record SlowLineReport(int line, LinePath path, double micros, String text) {
+    }
+}
@@ -0,0 +1,285 @@
+package com.techpricer.service;
+
+import com.techpricer.config.ReplicaRoutingDataSource;
+import com.techpricer.model.DollarRateHistory;
+import com.techpricer.model.Product;
+import com.techpricer.model.ProductPriceHistory;
+import com.techpricer.repository.DollarRateHistoryRepository;
+import com.techpricer.repository.ProductPriceHistoryRepository;
+import com.techpricer.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Historial append-only de la cotización y de los precios USD por producto.
+ *
+ * Solo se escribe cuando el valor cambia respecto del último registrado
+ * (comparando en centavos), así que un import que no toca precios no agrega
+ * filas. Los últimos valores se mantienen en memoria para no consultar la base
+ * en cada comparación; si una escritura falla o su transacción se revierte,
+ * se descartan y se recargan de la base en el próximo registro.
+ *
+ * Los productos se identifican por nombre: si en un mismo lote hay varios con
+ * el mismo nombre (por ejemplo en dos categorías), cuenta solo el primero.
+ *
+ * Un job diario hace downsampling: en los días anteriores a
+ * app.history.raw-retention-days queda una sola observación por día (la
+ * última, que es el valor con que cerró el día).
+ */
+@Service
+@Slf4j
+public class PriceHistoryService {
+
+    private final DollarRateHistoryRepository rateHistoryRepository;
+    private final ProductPriceHistoryRepository priceHistoryRepository;
+    private final ProductRepository productRepository;
+    private final int rawRetentionDays;
+
+    // Último valor registrado por tipo, en centavos. Comparar y guardar se hace
+    // con el lock del tipo: en modo local llega un evento por cada request.
+    private final Map<String, Long> lastRateCents = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> rateLocks = new ConcurrentHashMap<>();
+    // Por nombre; null = recargar desde la base. Se accede con pricesLock:
+    // ReentrantLock y no synchronized porque adentro hay JDBC y no debe fijar el
+    // carrier de un virtual thread.
+    private Map<String, Long> lastPriceCents;
+    private final ReentrantLock pricesLock = new ReentrantLock();
+
+    public PriceHistoryService(DollarRateHistoryRepository rateHistoryRepository,
+            ProductPriceHistoryRepository priceHistoryRepository, ProductRepository productRepository,
+            @Value("${app.history.raw-retention-days:30}") int rawRetentionDays) {
+        this.rateHistoryRepository = rateHistoryRepository;
+        this.priceHistoryRepository = priceHistoryRepository;
+        this.productRepository = productRepository;
+        this.rawRetentionDays = rawRetentionDays;
+    }
+
+    @EventListener
+    public void onDollarRateFetched(DollarRateFetchedEvent event) {
+        String type = event.rateType();
+        long cents = toCents(event.venta());
+        Long known = lastRateCents.get(type);
+        if (known != null && known == cents) {
+            return; // el caso de casi todas las requests, sin lock
+        }
+        ReentrantLock lock = rateLocks.computeIfAbsent(type, t -> new ReentrantLock());
+        lock.lock();
+        try {
+            Long last = lastRateCents.get(type);
+            if (last == null) {
+                last = rateHistoryRepository.findTopByRateTypeOrderByObservedAtDesc(type)
+                        .map(DollarRateHistory::getVentaCents).orElse(-1L);
+                lastRateCents.put(type, last);
+            }
+            if (last == cents) {
+                return;
+            }
+            rateHistoryRepository.save(DollarRateHistory.builder()
+                    .rateType(type)
+                    .ventaCents(cents)
+                    .observedAt(event.fetchedAt())
+                    .bucketDay(bucketDay(event.fetchedAt()))
+                    .build());
+            lastRateCents.put(type, cents);
+        } catch (RuntimeException e) {
+            // El historial no debe impedir servir la cotización; se recarga en el próximo
+            lastRateCents.remove(type);
+            log.warn("[History] No se pudo registrar la cotización: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.remote()) {
+            // Lo registró la instancia que hizo el cambio
+            invalidateLastPrices();
+            return;
+        }
+        switch (event.kind()) {
+            case REPLACED, UPSERTED -> recordPrices(event.products());
+            case RELOAD -> recordPrices(ReplicaRoutingDataSource.pinToPrimary(() -> productRepository.findAll()));
+            case REMOVED -> {
+            }
+        }
+    }
+
+    /**
+     * Registra los productos cuyo precio USD cambió.
+     *
+     * @return cantidad de cambios registrados
+     */
+    public int recordPrices(List<Product> products) {
+        pricesLock.lock();
+        try {
+            if (lastPriceCents == null) {
+                Map<String, Long> latest = new HashMap<>();
+                for (ProductPriceHistory h : priceHistoryRepository.findLatestPerProduct()) {
+                    latest.put(h.getProductName(), h.getPriceUsdCents());
+                }
+                lastPriceCents = latest;
+            }
+            Instant now = Instant.now();
+            int bucket = bucketDay(now);
+            Set<String> seen = new HashSet<>();
+            List<ProductPriceHistory> changes = new ArrayList<>();
+            for (Product product : products) {
+                if (product.getName() == null || product.getOriginalPriceUsd() == null
+                        || !seen.add(product.getName())) {
+                    continue;
+                }
+                long cents = toCents(product.getOriginalPriceUsd());
+                if (!Objects.equals(lastPriceCents.get(product.getName()), cents)) {
+                    changes.add(ProductPriceHistory.builder()
+                            .productName(product.getName())
+                            .priceUsdCents(cents)
+                            .observedAt(now)
+                            .bucketDay(bucket)
+                            .build());
+                }
+            }
+            if (changes.isEmpty()) {
+                return 0;
+            }
+            try {
+                priceHistoryRepository.saveAllAndFlush(changes);
+            } catch (RuntimeException e) {
+                lastPriceCents = null;
+                throw e;
+            }
+            for (ProductPriceHistory change : changes) {
+                lastPriceCents.put(change.getProductName(), change.getPriceUsdCents());
+            }
+            invalidateOnRollback();
+            log.info("[History] {} cambios de precio registrados", changes.size());
+            return changes.size();
+        } finally {
+            pricesLock.unlock();
+        }
+    }
+
+    /** Si la transacción en curso no llega a commitear, lo guardado en memoria ya no vale. */
+    private void invalidateOnRollback() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        invalidateLastPrices();
+                    }
+                }
+            });
+        }
+    }
+
+    private void invalidateLastPrices() {
+        pricesLock.lock();
+        try {
+            lastPriceCents = null;
+        } finally {
+            pricesLock.unlock();
+        }
+    }
+
+    @Scheduled(cron = "${app.history.downsample-cron:0 30 3 * * *}")
+    public void downsample() {
+        int cutoffDay = bucketDay(Instant.now()) - rawRetentionDays;
+        int rates = rateHistoryRepository.downsampleBefore(cutoffDay);
+        int prices = priceHistoryRepository.downsampleBefore(cutoffDay);
+        log.info("[History] Downsampling: {} cotizaciones y {} precios compactados", rates, prices);
+    }
+
+    /**
+     * Serie de la cotización entre {@code from} y {@code to} (inclusive, días
+     * UTC). El primer punto es el valor vigente al inicio del rango, si existe.
+     */
+    @Transactional(readOnly = true)
+    public HistorySeries rateSeries(String rateType, LocalDate from, LocalDate to) {
+        Instant start = startOf(from);
+        Instant end = startOf(to.plusDays(1));
+        List<HistoryPoint> points = new ArrayList<>();
+        rateHistoryRepository.findTopByRateTypeAndObservedAtLessThanOrderByObservedAtDesc(rateType, start)
+                .ifPresent(h -> points.add(new HistoryPoint(start, fromCents(h.getVentaCents()))));
+        addPoints(points, rateHistoryRepository
+                .findByRateTypeAndObservedAtGreaterThanEqualAndObservedAtLessThanOrderByObservedAtAsc(rateType,
+                        start, end),
+                DollarRateHistory::getObservedAt, DollarRateHistory::getVentaCents);
+        return new HistorySeries(rateType, "ARS", from, to, points);
+    }
+
+    /**
+     * Serie del precio USD del producto {@code name}, mismo criterio que
+     * {@link #rateSeries}.
+     */
+    @Transactional(readOnly = true)
+    public HistorySeries productSeries(String name, LocalDate from, LocalDate to) {
+        Instant start = startOf(from);
+        Instant end = startOf(to.plusDays(1));
+        List<HistoryPoint> points = new ArrayList<>();
+        priceHistoryRepository.findTopByProductNameAndObservedAtLessThanOrderByObservedAtDesc(name, start)
+                .ifPresent(h -> points.add(new HistoryPoint(start, fromCents(h.getPriceUsdCents()))));
+        addPoints(points, priceHistoryRepository
+                .findByProductNameAndObservedAtGreaterThanEqualAndObservedAtLessThanOrderByObservedAtAsc(name, start,
+                        end),
+                ProductPriceHistory::getObservedAt, ProductPriceHistory::getPriceUsdCents);
+        return new HistorySeries(name, "USD", from, to, points);
+    }
+
+    private static <T> void addPoints(List<HistoryPoint> points, List<T> rows,
+            Function<T, Instant> time, ToLongFunction<T> cents) {
+        for (T row : rows) {
+            points.add(new HistoryPoint(time.apply(row), fromCents(cents.applyAsLong(row))));
+        }
+    }
+
+    static int bucketDay(Instant instant) {
+        return (int) LocalDate.ofInstant(instant, ZoneOffset.UTC).toEpochDay();
+    }
+
+    private static Instant startOf(LocalDate day) {
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static long toCents(double value) {
+        return Math.round(value * 100.0);
+    }
+
+    private static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * @param key  tipo de cotización o nombre del producto
+     * @param unit moneda de los valores
+     */
+    public record HistorySeries(String key, String unit, LocalDate from, LocalDate to, List<HistoryPoint> points) {
+    }
+
+    public record HistoryPoint(Instant t, double value) {
+    }
+}
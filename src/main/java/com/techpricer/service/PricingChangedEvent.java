@@ -0,0 +1,17 @@
+package com.techpricer.service;
+
+/**
+ * Evento publicado cuando cambia algo que afecta el markup de todos los
+ * productos (reglas de ganancia o margen global), sin que cambie el catálogo.
+ *
+ * {@code source} = "rules", "config" o {@link #REMOTE} si el cambio se hizo en
+ * otra instancia (ver CacheVersionService).
+ */
+public record PricingChangedEvent(String source) {
+
+    public static final String REMOTE = "remote";
+
+    public boolean isRemote() {
+        return REMOTE.equals(source);
+    }
+}
@@ -0,0 +1,187 @@
+package com.techpricer.service;
+
+import com.techpricer.model.Product;
+import com.techpricer.model.ProfitRule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Simula el efecto de un conjunto de reglas, margen global y cotización
+ * candidatos sobre todo el catálogo, sin persistir nada.
+ *
+ * El catálogo se recorre desde el índice en memoria (no se consulta la base) y
+ * ambos precios, actual y simulado, se calculan en una sola pasada con los
+ * índices de reglas precompilados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PricingSimulationService {
+
+    // Límites superiores (exclusive) de los rangos de variación %, en orden. El
+    // rango [0, 0.000001) es "sin cambio".
+    private static final double[] BUCKET_LIMITS = { -20, -10, -5, 0, 0.000001, 5, 10, 20 };
+    private static final String[] BUCKET_LABELS = {
+            "< -20%", "-20% a -10%", "-10% a -5%", "-5% a 0%", "sin cambio", "0% a 5%", "5% a 10%", "10% a 20%",
+            ">= 20%" };
+    private static final int DEFAULT_TOP_MOVERS = 20;
+    private static final int MAX_TOP_MOVERS = 200;
+
+    private final ProductSearchIndex searchIndex;
+    private final ProfitRuleService profitRuleService;
+    private final GlobalConfigService globalConfigService;
+
+    /**
+     * @param currentDollarRate cotización actual, obtenida por el controller.
+     */
+    public SimulationResult simulate(SimulationRequest request, double currentDollarRate) {
+        long start = System.nanoTime();
+
+        ProfitRuleIndex currentRules = profitRuleService.getRuleIndex();
+        double currentMarkup = globalConfigService.getGlobalMarkup();
+
+        ProfitRuleIndex candidateRules = request.rules() != null
+                ? ProfitRuleIndex.compile(sortedLikeRepository(request.rules()))
+                : currentRules;
+        double candidateMarkup = request.profitMargin() != null ? request.profitMargin() : currentMarkup;
+        double candidateDollarRate = request.dollarRate() != null ? request.dollarRate() : currentDollarRate;
+        int topN = request.topMovers() != null
+                ? Math.max(0, Math.min(request.topMovers(), MAX_TOP_MOVERS))
+                : DEFAULT_TOP_MOVERS;
+
+        double currentRevenue = 0, simulatedRevenue = 0, currentCost = 0, simulatedCost = 0;
+        int priced = 0, increased = 0, decreased = 0;
+        long[] bucketCounts = new long[BUCKET_LABELS.length];
+        // min-heap por |delta|: queda con los topN mayores movimientos
+        PriorityQueue<PriceMove> topMoves = new PriorityQueue<>(
+                Comparator.comparingDouble(m -> Math.abs(m.deltaArs())));
+
+        List<Product> catalog = searchIndex.snapshot();
+        for (Product product : catalog) {
+            Double priceUsd = product.getOriginalPriceUsd();
+            if (priceUsd == null) {
+                continue;
+            }
+            priced++;
+            double currentPrice = price(priceUsd, markup(currentRules, priceUsd, product.getCategory(), currentMarkup),
+                    currentDollarRate);
+            double simulatedPrice = price(priceUsd,
+                    markup(candidateRules, priceUsd, product.getCategory(), candidateMarkup), candidateDollarRate);
+
+            currentRevenue += currentPrice;
+            simulatedRevenue += simulatedPrice;
+            currentCost += priceUsd * currentDollarRate;
+            simulatedCost += priceUsd * candidateDollarRate;
+
+            double delta = simulatedPrice - currentPrice;
+            if (delta > 0) {
+                increased++;
+            } else if (delta < 0) {
+                decreased++;
+            }
+            double deltaPct = currentPrice != 0 ? delta / currentPrice * 100 : 0;
+            bucketCounts[bucketFor(deltaPct)]++;
+
+            if (topN > 0 && delta != 0
+                    && (topMoves.size() < topN || Math.abs(delta) > Math.abs(topMoves.peek().deltaArs()))) {
+                topMoves.add(new PriceMove(product.getId(), product.getName(), product.getCategory(), priceUsd,
+                        currentPrice, simulatedPrice, round(delta), round(deltaPct)));
+                if (topMoves.size() > topN) {
+                    topMoves.poll();
+                }
+            }
+        }
+
+        List<PriceMove> movers = new ArrayList<>(topMoves);
+        movers.sort(Comparator.comparingDouble((PriceMove m) -> Math.abs(m.deltaArs())).reversed());
+        List<DistributionBucket> distribution = new ArrayList<>(BUCKET_LABELS.length);
+        for (int i = 0; i < BUCKET_LABELS.length; i++) {
+            distribution.add(new DistributionBucket(BUCKET_LABELS[i], bucketCounts[i]));
+        }
+
+        double currentMargin = currentRevenue - currentCost;
+        double simulatedMargin = simulatedRevenue - simulatedCost;
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("[Simulation] {} productos simulados en {} ms", priced, elapsedMs);
+
+        return new SimulationResult(
+                priced, increased, decreased,
+                currentDollarRate, candidateDollarRate,
+                round(currentRevenue), round(simulatedRevenue), round(simulatedRevenue - currentRevenue),
+                currentRevenue != 0 ? round((simulatedRevenue - currentRevenue) / currentRevenue * 100) : 0,
+                round(currentMargin), round(simulatedMargin), round(simulatedMargin - currentMargin),
+                distribution, movers, elapsedMs);
+    }
+
+    private static double markup(ProfitRuleIndex rules, double priceUsd, String category, double globalMarkup) {
+        Double resolved = rules.resolve(priceUsd, category);
+        return resolved != null ? resolved : globalMarkup;
+    }
+
+    // Misma fórmula y redondeo que ProductService
+    private static double price(double priceUsd, double markup, double dollarRate) {
+        return round((priceUsd * dollarRate) * (1 + markup / 100));
+    }
+
+    private static int bucketFor(double deltaPct) {
+        for (int i = 0; i < BUCKET_LIMITS.length; i++) {
+            if (deltaPct < BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_LIMITS.length;
+    }
+
+    /** Mismo orden que findAllByOrderByMinPriceUsdAsc (nulls al final). */
+    private static List<ProfitRule> sortedLikeRepository(List<ProfitRule> rules) {
+        List<ProfitRule> sorted = new ArrayList<>(rules);
+        sorted.sort(Comparator.comparing(ProfitRule::getMinPriceUsd,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return sorted;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    /**
+     * @param rules        reglas candidatas; null = usar las reglas actuales
+     * @param profitMargin margen global candidato; null = el actual
+     * @param dollarRate   cotización hipotética; null = la actual
+     * @param topMovers    cantidad de productos con mayor variación a devolver
+     */
+    public record SimulationRequest(List<ProfitRule> rules, Double profitMargin, Double dollarRate,
+            Integer topMovers) {
+    }
+
+    public record SimulationResult(
+            int productCount,
+            int increasedCount,
+            int decreasedCount,
+            double currentDollarRate,
+            double simulatedDollarRate,
+            double currentRevenueArs,
+            double simulatedRevenueArs,
+            double revenueDeltaArs,
+            double revenueDeltaPct,
+            double currentMarginArs,
+            double simulatedMarginArs,
+            double marginDeltaArs,
+            List<DistributionBucket> distribution,
+            List<PriceMove> topMovers,
+            long elapsedMs) {
+    }
+
+    public record DistributionBucket(String range, long count) {
+    }
+
+    public record PriceMove(Long id, String name, String category, double priceUsd, double currentPriceArs,
+            double simulatedPriceArs, double deltaArs, double deltaPct) {
+    }
+}
@@ -0,0 +1,367 @@
+package com.techpricer.service;
+
+import com.techpricer.config.ReplicaRoutingDataSource;
+import com.techpricer.model.Product;
+import com.techpricer.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre nombre y categoría de los productos.
+ *
+ * Cada token normalizado se indexa por trigramas (para coincidencias parciales
+ * como "phone" → "iphone") y por sus prefijos de 1 y 2 caracteres (para
+ * términos cortos como "15" o "gb"). Una búsqueda recorre la lista de posteo
+ * más chica, descarta los ids que no están en las demás, y puntúa cada
+ * candidato sin copiar listas; de los resultados solo se ordenan los que
+ * llegan hasta la página pedida (un heap acotado), y el total se cuenta
+ * aparte.
+ *
+ * Se mantiene de forma incremental escuchando CatalogChangedEvent (después del
+ * commit); solo se lee la tabla completa al arrancar o cuando el evento pide
+ * RELOAD.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    // Mismo criterio que el importador para limpiar emoji / símbolos de las notas
+    private static final Pattern SYMBOLS = Pattern.compile("[\\p{So}\\p{Cs}\\uFE0F\\u200D]");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Más relevante primero; a igual puntaje, nombre más corto, alfabético e id
+    private static final Comparator<Scored> RANKING = Comparator.comparingInt(Scored::score).reversed()
+            .thenComparingInt(s -> s.doc().name().length())
+            .thenComparing(s -> s.doc().name())
+            .thenComparing(s -> s.doc().id());
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<String, Set<Long>> gramPostings = new HashMap<>();
+    private final Map<String, Set<Long>> prefixPostings = new HashMap<>();
+
+    // Antes del warm-up (StartupWarmup), que ya usa lo cargado acá
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void loadOnStartup() {
+        rebuild(productRepository.findAll());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        switch (event.kind()) {
+            case REPLACED -> rebuild(event.products());
+            case UPSERTED -> upsertAll(event.products());
+            case REMOVED -> removeAll(event.removedIds());
+            // Se lee del primario: la réplica puede no tener todavía el cambio
+            case RELOAD -> rebuild(ReplicaRoutingDataSource.pinToPrimary(() -> productRepository.findAll()));
+        }
+    }
+
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            gramPostings.clear();
+            prefixPostings.clear();
+            products.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("[SearchIndex] Índice reconstruido con {} productos", products.size());
+    }
+
+    public void upsertAll(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (product != null && product.getId() != null) {
+                    remove(product.getId());
+                    add(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            ids.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copia de todos los productos indexados (sin precio ARS calculado), para
+     * procesos que necesitan recorrer el catálogo completo sin ir a la base.
+     */
+    public List<Product> snapshot() {
+        lock.readLock().lock();
+        try {
+            List<Product> products = new ArrayList<>(documents.size());
+            for (Document doc : documents.values()) {
+                products.add(doc.toProduct());
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca productos cuyo nombre o categoría contengan todos los términos de
+     * {@code query}. Los resultados se ordenan por relevancia (coincidencia
+     * exacta &gt; prefijo &gt; parcial; nombre &gt; categoría) y se paginan.
+     *
+     * Los productos devueltos son copias nuevas sin precio ARS calculado.
+     */
+    public SearchResult search(String query, int page, int size) {
+        String normalizedQuery = normalize(query);
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(normalizedQuery)));
+        if (terms.isEmpty() || size <= 0 || page < 0) {
+            return new SearchResult(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> postingLists = new ArrayList<>();
+            for (String term : terms) {
+                for (String key : lookupKeys(term)) {
+                    Set<Long> posting = (term.length() < GRAM ? prefixPostings : gramPostings).get(key);
+                    if (posting == null) {
+                        return new SearchResult(0, List.of());
+                    }
+                    postingLists.add(posting);
+                }
+            }
+            postingLists.sort(Comparator.comparingInt(Set::size));
+
+            // Los mejores (page + 1) * size, con el peor en la cabeza del heap
+            int keep = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE - 8);
+            PriorityQueue<Scored> top = new PriorityQueue<>(Math.min(keep, 64) + 1, RANKING.reversed());
+            long total = 0;
+            candidates:
+            for (Long id : postingLists.get(0)) {
+                for (int i = 1; i < postingLists.size(); i++) {
+                    if (!postingLists.get(i).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                Document doc = documents.get(id);
+                int score = score(doc, terms, normalizedQuery);
+                if (score == 0) {
+                    continue;
+                }
+                total++;
+                Scored scored = new Scored(doc, score);
+                if (top.size() < keep) {
+                    top.add(scored);
+                } else if (RANKING.compare(scored, top.peek()) < 0) {
+                    top.poll();
+                    top.add(scored);
+                }
+            }
+
+            long from = (long) page * size;
+            if (from >= top.size()) {
+                return new SearchResult(total, List.of());
+            }
+            Scored[] ranked = top.toArray(new Scored[0]);
+            Arrays.sort(ranked, RANKING);
+            List<Product> products = new ArrayList<>(ranked.length - (int) from);
+            for (int i = (int) from; i < ranked.length; i++) {
+                products.add(ranked[i].doc().toProduct());
+            }
+            return new SearchResult(total, products);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Normaliza un texto para indexar o buscar: quita acentos, emoji y símbolos,
+     * pasa a minúsculas y reemplaza cualquier separador por un espacio.
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String cleaned = SYMBOLS.matcher(DIACRITICS.matcher(decomposed).replaceAll("")).replaceAll(" ");
+        return SEPARATORS.matcher(cleaned.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    // ── Internos (requieren el write/read lock tomado) ──────────────────────────
+
+    private void add(Product product) {
+        if (product.getId() == null) {
+            return;
+        }
+        String normalizedName = normalize(product.getName());
+        Document doc = new Document(product.getId(), nullToEmpty(product.getName()), product.getCategory(),
+                product.getOriginalPriceUsd(), normalizedName,
+                tokenize(normalizedName).toArray(String[]::new),
+                tokenize(normalize(product.getCategory())).toArray(String[]::new));
+        documents.put(doc.id(), doc);
+        for (String key : indexKeys(doc)) {
+            postingsFor(key).computeIfAbsent(stripKind(key), k -> new HashSet<>()).add(doc.id());
+        }
+    }
+
+    private void remove(Long id) {
+        Document doc = documents.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (String key : indexKeys(doc)) {
+            Map<String, Set<Long>> postings = postingsFor(key);
+            String gram = stripKind(key);
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /** Claves con prefijo de tipo: "g" = trigrama, "p" = prefijo corto. */
+    private static Set<String> indexKeys(Document doc) {
+        Set<String> keys = new HashSet<>();
+        for (String[] tokens : List.of(doc.nameTokens(), doc.categoryTokens())) {
+            for (String token : tokens) {
+                for (int len = 1; len < GRAM && len <= token.length(); len++) {
+                    keys.add("p" + token.substring(0, len));
+                }
+                for (int i = 0; i + GRAM <= token.length(); i++) {
+                    keys.add("g" + token.substring(i, i + GRAM));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private Map<String, Set<Long>> postingsFor(String key) {
+        return key.charAt(0) == 'g' ? gramPostings : prefixPostings;
+    }
+
+    private static String stripKind(String key) {
+        return key.substring(1);
+    }
+
+    private static List<String> lookupKeys(String term) {
+        if (term.length() < GRAM) {
+            return List.of(term);
+        }
+        List<String> grams = new ArrayList<>(term.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static int score(Document doc, List<String> terms, String normalizedQuery) {
+        int total = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (String token : doc.nameTokens()) {
+                best = Math.max(best, match(term, token, 10, 6, 3));
+            }
+            for (String token : doc.categoryTokens()) {
+                best = Math.max(best, match(term, token, 4, 2, 1));
+            }
+            if (best == 0) {
+                return 0; // todos los términos deben coincidir
+            }
+            total += best;
+        }
+        if (terms.size() > 1 && doc.normalizedName().contains(normalizedQuery)) {
+            total += 5; // la frase completa aparece tal cual en el nombre
+        }
+        return total;
+    }
+
+    private static int match(String term, String token, int exact, int prefix, int infix) {
+        if (token.equals(term)) {
+            return exact;
+        }
+        if (token.startsWith(term)) {
+            return prefix;
+        }
+        if (term.length() >= GRAM && token.contains(term)) {
+            return infix;
+        }
+        return 0;
+    }
+
+    private static List<String> tokenize(String normalized) {
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(normalized.split(" "));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private record Document(Long id, String name, String category, Double priceUsd,
+            String normalizedName, String[] nameTokens, String[] categoryTokens) {
+
+        Product toProduct() {
+            return Product.builder()
+                    .id(id)
+                    .name(name)
+                    .originalPriceUsd(priceUsd)
+                    .category(category)
+                    .build();
+        }
+    }
+
+    private record Scored(Document doc, int score) {
+    }
+
+    public record SearchResult(long total, List<Product> products) {
+    }
+}
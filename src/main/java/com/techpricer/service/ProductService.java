@@ -2,16 +2,22 @@ package com.techpricer.service;
 
 import com.techpricer.model.GlobalConfig;
 import com.techpricer.model.Product;
-import com.techpricer.model.ProfitRule;
 import com.techpricer.repository.GlobalConfigRepository;
 import com.techpricer.repository.ProductRepository;
+import com.techpricer.service.ImportProfiler.LinePath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -24,6 +30,12 @@ public class ProductService {
     private final GlobalConfigRepository configRepository;
     private final ProfitRuleService profitRuleService;
     private final com.fasterxml.jackson.databind.ObjectMapper objectMapper;
+    private final ProductSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    // Tamaño máximo de cada lista IN en las operaciones masivas
+    static final int BULK_CHUNK_SIZE = 1000;
 
     private GlobalConfig getConfig() {
         return configRepository.findById(1L).orElseGet(() -> {
@@ -46,22 +58,50 @@ public class ProductService {
 
     @Transactional
     public void importProducts(String rawText) {
+        importProducts(rawText, ImportProfiler.disabled());
+    }
+
+    /**
+     * @param profiler recibe el tiempo de cada etapa y el camino de cada línea
+     *                 (ver ImportProfiler)
+     */
+    @Transactional
+    public void importProducts(String rawText, ImportProfiler profiler) {
         if (rawText == null || rawText.isEmpty()) {
             return;
         }
 
-        // Handle JSON wrapper if present ({"data": "..."})
+        String text = importStage("unwrap", profiler, () -> unwrapJson(rawText));
+        List<Product> products = importStage("parse", profiler, () -> parseLines(text, profiler));
+        profiler.products(products.size());
+
+        if (!products.isEmpty()) {
+            importStage("persist", profiler, () -> {
+                productRepository.deleteAllInBatch();
+                List<Product> saved = productRepository.saveAll(products);
+                eventPublisher.publishEvent(CatalogChangedEvent.replaced(saved));
+                return saved;
+            });
+            log.info("Imported {} products", products.size());
+        }
+    }
+
+    // Handle JSON wrapper if present ({"data": "..."})
+    private String unwrapJson(String rawText) {
         if (rawText.trim().startsWith("{")) {
             try {
                 var jsonNode = objectMapper.readTree(rawText);
                 if (jsonNode.has("data")) {
-                    rawText = jsonNode.get("data").asText();
+                    return jsonNode.get("data").asText();
                 }
             } catch (java.io.IOException e) {
                 log.warn("Failed to parse rawText as JSON, treating as plain text", e);
             }
         }
+        return rawText;
+    }
 
+    private List<Product> parseLines(String rawText, ImportProfiler profiler) {
         List<Product> products = new ArrayList<>();
         String[] lines = rawText.split("\\r?\\n");
         String currentCategory = "";
@@ -71,12 +111,15 @@ public class ProductService {
         double lastProductPrice = 0.0;
         int lastProductIndex = -1;
 
-        for (String line : lines) {
+        for (int lineIndex = 0; lineIndex < lines.length; lineIndex++) {
+            String line = lines[lineIndex];
+            long lineStart = profiler.lineStart();
             String trimmedLine = line.trim();
             if (trimmedLine.isEmpty()) {
                 lastBaseName = null;
                 lastProductIndex = -1;
                 lastProductNote = "";
+                profiler.line(lineIndex + 1, LinePath.BLANK, trimmedLine, lineStart);
                 continue;
             }
 
@@ -87,6 +130,7 @@ public class ProductService {
                 lastBaseName = null;
                 lastProductIndex = -1;
                 lastProductNote = "";
+                profiler.line(lineIndex + 1, LinePath.CATEGORY, trimmedLine, lineStart);
                 continue;
             }
 
@@ -121,6 +165,7 @@ public class ProductService {
                         lastBaseName = null;
                         lastProductIndex = -1;
                         lastProductNote = "";
+                        profiler.line(lineIndex + 1, LinePath.FORMAT_A, trimmedLine, lineStart);
                         continue;
                     }
                 }
@@ -155,6 +200,7 @@ public class ProductService {
                         lastBaseName = null;
                         lastProductIndex = -1;
                         lastProductNote = "";
+                        profiler.line(lineIndex + 1, LinePath.FORMAT_B, trimmedLine, lineStart);
                         continue;
                     }
                 }
@@ -199,6 +245,7 @@ public class ProductService {
                             lastBaseName = null;
                             lastProductIndex = -1;
                             lastProductNote = "";
+                            profiler.line(lineIndex + 1, LinePath.FORMAT_C, trimmedLine, lineStart);
                             continue;
                         }
 
@@ -222,6 +269,7 @@ public class ProductService {
                     lastProductNote = noteAppend;
                     lastProductPrice = price;
                     products.add(product);
+                    profiler.line(lineIndex + 1, LinePath.PRODUCT, trimmedLine, lineStart);
                     continue;
                 } catch (NumberFormatException e) {
                     log.warn("Could not parse price in line: {}", line);
@@ -236,6 +284,7 @@ public class ProductService {
             }
 
             // Fallback: CSV (Name, Price, Category)
+            LinePath path = LinePath.REJECTED;
             if (trimmedLine.contains(",") && !trimmedLine.startsWith("►") && !trimmedLine.startsWith("▪️")) {
                 String[] parts = trimmedLine.split(",");
                 if (parts.length >= 2) {
@@ -251,18 +300,31 @@ public class ProductService {
                                 .category(category)
                                 .build();
                         products.add(product);
+                        path = LinePath.CSV;
                     } catch (Exception e) {
                         log.debug("Line failed CSV parsing: {}", line);
                     }
                 }
             }
+            profiler.line(lineIndex + 1, path, trimmedLine, lineStart);
         }
 
-        if (!products.isEmpty()) {
-            productRepository.deleteAll();
-            productRepository.saveAll(products);
-            log.info("Imported {} products", products.size());
-        }
+        return products;
+    }
+
+    /**
+     * Corre una etapa del import registrando su duración en el timer de
+     * Micrometer y, si se está perfilando, en el profiler.
+     */
+    private <T> T importStage(String stage, ImportProfiler profiler, Supplier<T> work) {
+        return importStageTimer(stage).record(() -> profiler.stage(stage, work));
+    }
+
+    private Timer importStageTimer(String stage) {
+        return Timer.builder("techpricer.import.stage")
+                .description("Duración de cada etapa del import de listas de proveedor")
+                .tag("stage", stage)
+                .register(meterRegistry);
     }
 
     /**
@@ -270,37 +332,176 @@ public class ProductService {
      *                   null).
      */
     public List<Product> getAllProductsWithCalculatedPrice(Double dolarVenta) {
-        List<Product> products = productRepository.findAll();
+        List<Product> products = Timer.builder("techpricer.catalog.load")
+                .description("Lectura del catálogo completo desde la base")
+                .register(meterRegistry)
+                .record(() -> productRepository.findAll());
+        return applyCalculatedPrices(products, dolarVenta);
+    }
+
+    /**
+     * Igual que {@link #getAllProductsWithCalculatedPrice(Double)} pero calcula el
+     * precio para todas las cotizaciones de {@code rates} en la misma pasada:
+     * {@code pricesArs} trae uno por tipo y {@code finalPriceArs} el de
+     * {@code primaryRate}.
+     */
+    public List<Product> getAllProductsWithCalculatedPrices(Map<String, Double> rates, String primaryRate) {
+        List<Product> products = Timer.builder("techpricer.catalog.load")
+                .description("Lectura del catálogo completo desde la base")
+                .register(meterRegistry)
+                .record(() -> productRepository.findAll());
+        return applyCalculatedPrices(products, rates.get(primaryRate), rates);
+    }
+
+    /**
+     * Busca en el índice en memoria por nombre / categoría y devuelve la página
+     * pedida con el precio en ARS calculado.
+     *
+     * @param dolarVenta cotización obtenida previamente por el controller.
+     */
+    public ProductSearchIndex.SearchResult searchProducts(String query, int page, int size, Double dolarVenta) {
+        ProductSearchIndex.SearchResult result = searchIndex.search(query, page, size);
+        return new ProductSearchIndex.SearchResult(result.total(),
+                applyCalculatedPrices(result.products(), dolarVenta));
+    }
+
+    /**
+     * Búsqueda con precio para varias cotizaciones, ver
+     * {@link #getAllProductsWithCalculatedPrices}.
+     */
+    public ProductSearchIndex.SearchResult searchProducts(String query, int page, int size,
+            Map<String, Double> rates, String primaryRate) {
+        ProductSearchIndex.SearchResult result = searchIndex.search(query, page, size);
+        return new ProductSearchIndex.SearchResult(result.total(),
+                applyCalculatedPrices(result.products(), rates.get(primaryRate), rates));
+    }
+
+    private List<Product> applyCalculatedPrices(List<Product> products, Double dolarVenta) {
+        return applyCalculatedPrices(products, dolarVenta, null);
+    }
+
+    private List<Product> applyCalculatedPrices(List<Product> products, Double dolarVenta,
+            Map<String, Double> rates) {
+        return Timer.builder("techpricer.catalog.pricing")
+                .description("Cálculo de precio ARS de una lista de productos")
+                .register(meterRegistry)
+                .record(() -> calculatePrices(products, dolarVenta, rates));
+    }
+
+    /**
+     * Una sola pasada por los productos: el markup se resuelve una vez por
+     * producto y se aplica a cada cotización.
+     *
+     * @param rates null = solo finalPriceArs con {@code dolarVenta}
+     */
+    private List<Product> calculatePrices(List<Product> products, Double dolarVenta, Map<String, Double> rates) {
         GlobalConfig config = getConfig();
         Double globalMarkup = config.getProfitPercentage() != null ? config.getProfitPercentage() : 0.0;
 
-        List<ProfitRule> rules = profitRuleService.getAllRules();
-        log.debug("[PriceCalc] Rules loaded: {}, globalMarkup: {}, dolar: {}", rules.size(), globalMarkup, dolarVenta);
+        ProfitRuleIndex ruleIndex = profitRuleService.getRuleIndex();
+        log.debug("[PriceCalc] Rules loaded: {}, globalMarkup: {}, dolar: {}", ruleIndex.ruleCount(), globalMarkup,
+                rates != null ? rates : dolarVenta);
+
+        String[] rateTypes = rates != null ? rates.keySet().toArray(new String[0]) : new String[0];
+        double[] rateValues = new double[rateTypes.length];
+        for (int i = 0; i < rateTypes.length; i++) {
+            rateValues[i] = rates.get(rateTypes[i]);
+        }
 
         for (Product product : products) {
             if (product.getOriginalPriceUsd() != null) {
-                Double resolvedMarkup = profitRuleService.resolveProfit(product.getOriginalPriceUsd(), rules);
+                double usd = product.getOriginalPriceUsd();
+                Double resolvedMarkup = profitRuleService.resolveProfit(usd, product.getCategory(), ruleIndex);
                 double markup = resolvedMarkup != null ? resolvedMarkup : globalMarkup;
-                double priceArs = (product.getOriginalPriceUsd() * dolarVenta) * (1 + markup / 100);
-                product.setFinalPriceArs(Math.round(priceArs * 100.0) / 100.0);
+                double factor = 1 + markup / 100;
+                if (dolarVenta != null) {
+                    product.setFinalPriceArs(round2((usd * dolarVenta) * factor));
+                }
+                if (rates != null) {
+                    Map<String, Double> prices = new LinkedHashMap<>(rateTypes.length * 2);
+                    for (int i = 0; i < rateTypes.length; i++) {
+                        prices.put(rateTypes[i], round2((usd * rateValues[i]) * factor));
+                    }
+                    product.setPricesArs(prices);
+                }
             }
         }
         return products;
     }
 
+    private static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
     @Transactional
     public Product addManualProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(CatalogChangedEvent.upserted(List.of(saved)));
+        return saved;
     }
 
     @Transactional
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        productRepository.deleteByIdIn(List.of(id));
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(List.of(id)));
     }
 
+    /**
+     * Elimina los productos indicados con un DELETE por cada bloque de
+     * BULK_CHUNK_SIZE ids.
+     *
+     * @return cantidad de filas eliminadas
+     */
+    @Transactional
+    public int deleteProducts(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> distinctIds = ids.stream().filter(java.util.Objects::nonNull).distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinctIds.size()));
+            deleted += productRepository.deleteByIdIn(chunk);
+        }
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(distinctIds));
+        log.info("[Bulk] Eliminados {} productos ({} ids pedidos)", deleted, ids.size());
+        return deleted;
+    }
+
+    /**
+     * Elimina todos los productos de una categoría con un único DELETE.
+     *
+     * @return cantidad de filas eliminadas
+     */
+    @Transactional
+    public int deleteProductsByCategory(String category) {
+        int deleted = productRepository.deleteByCategory(category);
+        if (deleted > 0) {
+            eventPublisher.publishEvent(CatalogChangedEvent.reload());
+        }
+        log.info("[Bulk] Eliminados {} productos de la categoría '{}'", deleted, category);
+        return deleted;
+    }
+
+    /**
+     * Ajusta el precio USD de todos los productos (o solo los de
+     * {@code category}, si no es null) en {@code percentage} por ciento, con un
+     * único UPDATE. Ej: 10 = +10%, -5 = -5%.
+     *
+     * @return cantidad de filas actualizadas
+     */
     @Transactional
-    public void deleteProducts(List<Long> ids) {
-        productRepository.deleteAllById(ids);
+    public int adjustPrices(String category, double percentage) {
+        double factor = 1 + percentage / 100;
+        int updated = category != null
+                ? productRepository.scalePricesByCategory(category, factor)
+                : productRepository.scaleAllPrices(factor);
+        if (updated > 0) {
+            eventPublisher.publishEvent(CatalogChangedEvent.reload());
+        }
+        log.info("[Bulk] Ajustados {}% {} productos (categoría: {})", percentage, updated,
+                category != null ? category : "todas");
+        return updated;
     }
 
     /**
@@ -315,12 +516,13 @@ public class ProductService {
         GlobalConfig config = getConfig();
         Double globalMarkup = config.getProfitPercentage() != null ? config.getProfitPercentage() : 0.0;
 
-        List<ProfitRule> rules = profitRuleService.getAllRules();
-        Double resolvedMarkup = profitRuleService.resolveProfit(product.getOriginalPriceUsd(), rules);
+        ProfitRuleIndex ruleIndex = profitRuleService.getRuleIndex();
+        Double resolvedMarkup = profitRuleService.resolveProfit(product.getOriginalPriceUsd(),
+                product.getCategory(), ruleIndex);
         double markup = resolvedMarkup != null ? resolvedMarkup : globalMarkup;
 
         double priceArs = (product.getOriginalPriceUsd() * dolarVenta) * (1 + markup / 100);
-        product.setFinalPriceArs(Math.round(priceArs * 100.0) / 100.0);
+        product.setFinalPriceArs(round2(priceArs));
         log.debug("[PriceCalc] '{}' usd={} markup={}% dolar={} -> finalArs={}",
                 product.getName(), product.getOriginalPriceUsd(), markup, dolarVenta, product.getFinalPriceArs());
         return product;
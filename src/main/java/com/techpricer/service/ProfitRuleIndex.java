@@ -0,0 +1,194 @@
+package com.techpricer.service;
+
+import com.techpricer.model.ProfitRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice precompilado e inmutable de reglas de ganancia: categoría → árbol de
+ * intervalos de precio, más un árbol para las reglas sin categoría.
+ *
+ * Cada árbol se "aplana" al compilar en segmentos disjuntos ordenados, cada uno
+ * con la regla ganadora ya resuelta, así que resolver un precio es una búsqueda
+ * binaria: O(log n) sin importar cuántas reglas haya.
+ *
+ * Precedencia: regla de la categoría cuyo rango contiene el precio → regla
+ * general (sin categoría) cuyo rango contiene el precio → null (el llamador
+ * usa el margen global). Dentro de un mismo grupo, si varios rangos se
+ * superponen gana la primera regla en el orden recibido (minPriceUsd
+ * ascendente), igual que la resolución lineal original. Las reglas sin
+ * profitPercentage se ignoran.
+ */
+public final class ProfitRuleIndex {
+
+    private static final ProfitRuleIndex EMPTY = new ProfitRuleIndex(IntervalLookup.EMPTY, Map.of(), 0);
+
+    private final IntervalLookup generalRules;
+    private final Map<String, IntervalLookup> rulesByCategory;
+    private final int ruleCount;
+    // Categoría tal cual viene en el producto → árbol de esa categoría (o EMPTY).
+    // Evita normalizar el texto en cada resolución; las categorías distintas son
+    // pocas, así que no hace falta acotarlo.
+    private final Map<String, IntervalLookup> lookupByRawCategory = new ConcurrentHashMap<>();
+
+    private ProfitRuleIndex(IntervalLookup generalRules, Map<String, IntervalLookup> rulesByCategory,
+            int ruleCount) {
+        this.generalRules = generalRules;
+        this.rulesByCategory = rulesByCategory;
+        this.ruleCount = ruleCount;
+    }
+
+    public static ProfitRuleIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param rules reglas en orden de precedencia (ver
+     *              ProfitRuleRepository#findAllByOrderByMinPriceUsdAsc)
+     */
+    public static ProfitRuleIndex compile(List<ProfitRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return EMPTY;
+        }
+        List<ProfitRule> general = new ArrayList<>();
+        Map<String, List<ProfitRule>> byCategory = new LinkedHashMap<>();
+        for (ProfitRule rule : rules) {
+            String key = categoryKey(rule.getCategory());
+            if (key.isEmpty()) {
+                general.add(rule);
+            } else {
+                byCategory.computeIfAbsent(key, k -> new ArrayList<>()).add(rule);
+            }
+        }
+        Map<String, IntervalLookup> lookups = new HashMap<>();
+        byCategory.forEach((category, categoryRules) -> lookups.put(category, IntervalLookup.build(categoryRules)));
+        return new ProfitRuleIndex(IntervalLookup.build(general), lookups, rules.size());
+    }
+
+    /**
+     * @return porcentaje de ganancia para el precio y categoría dados, o null si
+     *         ninguna regla aplica.
+     */
+    public Double resolve(Double priceUsd, String category) {
+        if (priceUsd == null || priceUsd.isNaN() || ruleCount == 0) {
+            return null;
+        }
+        if (!rulesByCategory.isEmpty() && category != null) {
+            IntervalLookup categoryRules = lookupByRawCategory.computeIfAbsent(category,
+                    raw -> rulesByCategory.getOrDefault(categoryKey(raw), IntervalLookup.EMPTY));
+            Double profit = categoryRules.find(priceUsd);
+            if (profit != null) {
+                return profit;
+            }
+        }
+        return generalRules.find(priceUsd);
+    }
+
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    /**
+     * Clave de categoría: mismo criterio que la búsqueda (sin acentos, emoji ni
+     * mayúsculas), para que "Celulares" matchee "► CELULARES 📱".
+     */
+    static String categoryKey(String category) {
+        return ProductSearchIndex.normalize(category);
+    }
+
+    /**
+     * Rangos [min, max] aplanados en segmentos disjuntos. {@code starts[i]} es el
+     * inicio (inclusive) del segmento i, que termina donde empieza el i+1;
+     * {@code profits[i]} es la ganancia de la regla ganadora, o null si ninguna
+     * regla cubre el segmento.
+     */
+    private static final class IntervalLookup {
+
+        static final IntervalLookup EMPTY = new IntervalLookup(new double[0], new Double[0]);
+
+        private final double[] starts;
+        private final Double[] profits;
+
+        private IntervalLookup(double[] starts, Double[] profits) {
+            this.starts = starts;
+            this.profits = profits;
+        }
+
+        Double find(double price) {
+            int i = Arrays.binarySearch(starts, price);
+            if (i < 0) {
+                i = -i - 2; // segmento cuyo inicio es el mayor <= price
+            }
+            return i >= 0 ? profits[i] : null;
+        }
+
+        /**
+         * Barrido por los extremos de los rangos con una cola de prioridad de
+         * reglas activas ordenada por precedencia: O(n log n).
+         */
+        static IntervalLookup build(List<ProfitRule> rules) {
+            List<Interval> intervals = new ArrayList<>();
+            for (int order = 0; order < rules.size(); order++) {
+                ProfitRule rule = rules.get(order);
+                if (rule.getProfitPercentage() == null) {
+                    continue;
+                }
+                double lo = rule.getMinPriceUsd() != null ? rule.getMinPriceUsd() : Double.NEGATIVE_INFINITY;
+                // maxPriceUsd es inclusive → el segmento termina justo después
+                double hi = rule.getMaxPriceUsd() != null ? Math.nextUp(rule.getMaxPriceUsd())
+                        : Double.POSITIVE_INFINITY;
+                if (lo < hi) {
+                    intervals.add(new Interval(lo, hi, order, rule.getProfitPercentage()));
+                }
+            }
+            if (intervals.isEmpty()) {
+                return EMPTY;
+            }
+
+            TreeSet<Double> points = new TreeSet<>();
+            for (Interval interval : intervals) {
+                points.add(interval.lo());
+                points.add(interval.hi());
+            }
+            intervals.sort(Comparator.comparingDouble(Interval::lo));
+
+            PriorityQueue<Interval> active = new PriorityQueue<>(Comparator.comparingInt(Interval::order));
+            List<Double> segmentStarts = new ArrayList<>();
+            List<Double> segmentProfits = new ArrayList<>();
+            Interval lastWinner = null;
+            int next = 0;
+            for (double point : points) {
+                while (next < intervals.size() && intervals.get(next).lo() <= point) {
+                    active.add(intervals.get(next++));
+                }
+                while (!active.isEmpty() && active.peek().hi() <= point) {
+                    active.poll(); // borrado perezoso: ya terminó
+                }
+                Interval winner = active.peek();
+                if (segmentStarts.isEmpty() || winner != lastWinner) {
+                    segmentStarts.add(point);
+                    segmentProfits.add(winner != null ? winner.profit() : null);
+                    lastWinner = winner;
+                }
+            }
+
+            double[] starts = new double[segmentStarts.size()];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = segmentStarts.get(i);
+            }
+            return new IntervalLookup(starts, segmentProfits.toArray(new Double[0]));
+        }
+    }
+
+    private record Interval(double lo, double hi, int order, Double profit) {
+    }
+}
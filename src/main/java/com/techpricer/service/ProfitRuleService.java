@@ -1,13 +1,18 @@
 package com.techpricer.service;
 
+import com.techpricer.config.ReplicaRoutingDataSource;
 import com.techpricer.model.ProfitRule;
 import com.techpricer.repository.ProfitRuleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
@@ -15,20 +20,76 @@ import java.util.List;
 public class ProfitRuleService {
 
     private final ProfitRuleRepository profitRuleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    public static final String CACHE_REQUESTS_METRIC = "techpricer.cache.requests";
+
+    // Índice compilado de las reglas vigentes; cada invalidación lo reemplaza por
+    // una generación nueva sin índice.
+    private final AtomicReference<CachedIndex> cachedIndex = new AtomicReference<>(new CachedIndex(0, null));
 
     /**
      * Devuelve todas las reglas ordenadas por minPriceUsd ascendente.
      */
+    @Transactional(readOnly = true)
     public List<ProfitRule> getAllRules() {
         return profitRuleRepository.findAllByOrderByMinPriceUsdAsc();
     }
 
+    /**
+     * Devuelve el índice compilado de las reglas actuales, compilándolo la primera
+     * vez que se pide después de un cambio.
+     *
+     * La compilación lee del primario aunque haya réplica: el índice queda
+     * cacheado hasta el próximo cambio y no debe armarse con datos atrasados.
+     * Solo se guarda si no hubo una invalidación mientras se compilaba; si la
+     * hubo, se usa para esta llamada y la siguiente vuelve a compilar.
+     */
+    public ProfitRuleIndex getRuleIndex() {
+        CachedIndex cached = cachedIndex.get();
+        if (cached.index() != null) {
+            meterRegistry.counter(CACHE_REQUESTS_METRIC, "cache", "rules", "result", "hit").increment();
+            return cached.index();
+        }
+        ProfitRuleIndex index = ReplicaRoutingDataSource.pinToPrimary(() -> ProfitRuleIndex.compile(getAllRules()));
+        if (!cachedIndex.compareAndSet(cached, new CachedIndex(cached.generation(), index))) {
+            log.debug("[ProfitRules] Reglas cambiadas durante la compilación, no se cachea el índice");
+        }
+        meterRegistry.counter(CACHE_REQUESTS_METRIC, "cache", "rules", "result", "miss").increment();
+        log.debug("[ProfitRules] Índice compilado con {} reglas", index.ruleCount());
+        return index;
+    }
+
+    /**
+     * Cantidad de reglas del índice cacheado, sin compilarlo ni contar un
+     * acierto / fallo de cache (para métricas).
+     *
+     * @return null si el índice no está compilado (todavía no se pidió o hubo un
+     *         cambio desde la última compilación)
+     */
+    public Integer cachedRuleCount() {
+        ProfitRuleIndex index = cachedIndex.get().index();
+        return index != null ? index.ruleCount() : null;
+    }
+
+    /**
+     * Descarta el índice compilado una vez confirmado el cambio, para que la
+     * próxima resolución lea las reglas ya commiteadas.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPricingChanged(PricingChangedEvent event) {
+        cachedIndex.updateAndGet(cached -> new CachedIndex(cached.generation() + 1, null));
+    }
+
     /**
      * Crea una nueva regla.
      */
     @Transactional
     public ProfitRule createRule(ProfitRule rule) {
-        return profitRuleRepository.save(rule);
+        ProfitRule saved = profitRuleRepository.save(rule);
+        eventPublisher.publishEvent(new PricingChangedEvent("rules"));
+        return saved;
     }
 
     /**
@@ -40,9 +101,12 @@ public class ProfitRuleService {
                 .orElseThrow(() -> new RuntimeException("Regla no encontrada con id: " + id));
         existing.setMinPriceUsd(updatedRule.getMinPriceUsd());
         existing.setMaxPriceUsd(updatedRule.getMaxPriceUsd());
+        existing.setCategory(updatedRule.getCategory());
         existing.setProfitPercentage(updatedRule.getProfitPercentage());
         existing.setDescription(updatedRule.getDescription());
-        return profitRuleRepository.save(existing);
+        ProfitRule saved = profitRuleRepository.save(existing);
+        eventPublisher.publishEvent(new PricingChangedEvent("rules"));
+        return saved;
     }
 
     /**
@@ -51,37 +115,33 @@ public class ProfitRuleService {
     @Transactional
     public void deleteRule(Long id) {
         profitRuleRepository.deleteById(id);
+        eventPublisher.publishEvent(new PricingChangedEvent("rules"));
     }
 
     /**
      * Resuelve el porcentaje de ganancia a aplicar a un producto dado su precio en
-     * USD.
+     * USD y su categoría.
      *
      * Usa rangos explícitos: minPriceUsd (inclusive) y maxPriceUsd (inclusive).
      * Si maxPriceUsd es null, no hay límite superior.
      * Si minPriceUsd es null, no hay límite inferior (desde $0).
      *
+     * Precedencia: regla de la categoría del producto → regla general → null.
+     *
      * Ejemplo:
      * - Regla A: min=0, max=500, profit=15% → aplica a $0–$500
      * - Regla B: min=501, max=1000, profit=12% → aplica a $501–$1000
      * - Regla C: min=1001, max=null, profit=10% → aplica a $1001+
+     * - Regla D: categoría=Accesorios, min=0, max=100, profit=40% → pisa a A para
+     * accesorios de hasta $100
      *
-     * Si no hay reglas, retorna null (se usará el profitPercentage global).
+     * Si ninguna regla aplica, retorna null (se usará el profitPercentage global).
      */
-    public Double resolveProfit(Double priceUsd, List<ProfitRule> rules) {
-        if (rules == null || rules.isEmpty()) {
-            return null;
-        }
-
-        for (ProfitRule rule : rules) {
-            boolean aboveMin = (rule.getMinPriceUsd() == null || priceUsd >= rule.getMinPriceUsd());
-            boolean belowMax = (rule.getMaxPriceUsd() == null || priceUsd <= rule.getMaxPriceUsd());
-
-            if (aboveMin && belowMax) {
-                return rule.getProfitPercentage();
-            }
-        }
+    public Double resolveProfit(Double priceUsd, String category, ProfitRuleIndex index) {
+        return index.resolve(priceUsd, category);
+    }
 
-        return null;
+    /** Índice cacheado (null si hay que compilarlo) y la generación en la que se pidió. */
+    private record CachedIndex(long generation, ProfitRuleIndex index) {
     }
 }
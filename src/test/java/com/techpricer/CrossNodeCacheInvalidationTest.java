@@ -0,0 +1,92 @@
+package com.techpricer;
+
+import com.techpricer.model.Product;
+import com.techpricer.model.ProfitRule;
+import com.techpricer.service.GlobalConfigService;
+import com.techpricer.service.ProductSearchIndex;
+import com.techpricer.service.ProductService;
+import com.techpricer.service.ProfitRuleService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dos instancias de la aplicación contra la misma base H2: un cambio hecho en
+ * el nodo A tiene que invalidar las caches en memoria del nodo B.
+ */
+class CrossNodeCacheInvalidationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void catalogChangeOnOneNode_ShouldReloadSearchIndexOnTheOther() {
+        ProductSearchIndex indexB = nodeB.getBean(ProductSearchIndex.class);
+        int before = indexB.size();
+
+        nodeA.getBean(ProductService.class).addManualProduct(
+                Product.builder().name("Notebook Lenovo IdeaPad 3").category("Notebooks").originalPriceUsd(650.0)
+                        .build());
+
+        awaitTrue(() -> indexB.size() == before + 1);
+        assertEquals(1, indexB.search("ideapad", 0, 10).total());
+    }
+
+    @Test
+    void ruleAndConfigChangesOnOneNode_ShouldInvalidatePricingOnTheOther() {
+        ProfitRuleService rulesB = nodeB.getBean(ProfitRuleService.class);
+        assertNull(rulesB.getRuleIndex().resolve(5000.0, "Servidores"));
+
+        nodeA.getBean(ProfitRuleService.class).createRule(ProfitRule.builder()
+                .minPriceUsd(4000.0).maxPriceUsd(6000.0).category("Servidores").profitPercentage(12.0).build());
+        nodeA.getBean(GlobalConfigService.class).updateProfitPercentage(33.0);
+
+        awaitTrue(() -> Double.valueOf(12.0).equals(rulesB.getRuleIndex().resolve(5000.0, "Servidores")));
+        assertEquals(33.0, nodeB.getBean(GlobalConfigService.class).getGlobalMarkup());
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(TechPricerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:shared;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--app.cache.invalidation.poll-interval=PT0.2S");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("La otra instancia no se actualizó en " + TIMEOUT);
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrumpido");
+            }
+        }
+    }
+}
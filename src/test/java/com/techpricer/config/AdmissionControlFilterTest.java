@@ -0,0 +1,163 @@
+package com.techpricer.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlFilterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(true,
+            1, 0, Duration.ofMillis(10),
+            1, 0, Duration.ofMillis(10),
+            Duration.ofSeconds(3), "/api/public/products", DataSize.ofBytes(25), new SimpleMeterRegistry());
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void publicRequest_ShouldBeRejectedWith503AndRetryAfterWhenFull() throws Exception {
+        occupy("/api/public/config");
+
+        MockHttpServletResponse response = call("GET", "/api/public/config", "ok");
+
+        assertEquals(503, response.getStatus());
+        assertEquals("3", response.getHeader("Retry-After"));
+    }
+
+    @Test
+    void publicRequest_ShouldServeLastGoodResponseWhenFull() throws Exception {
+        assertEquals("catalog-v1", call("GET", "/api/public/products", "catalog-v1").getContentAsString());
+        occupy("/api/public/config");
+
+        MockHttpServletResponse response = call("GET", "/api/public/products", "catalog-v2");
+
+        assertEquals(200, response.getStatus());
+        assertEquals("STALE", response.getHeader("X-Cache"));
+        assertEquals("catalog-v1", response.getContentAsString());
+    }
+
+    @Test
+    void staleCache_ShouldKeyOnPathAndNormalizedRatesOnly() throws Exception {
+        call("GET", "/api/public/products?rates=Blue,%20oficial,blue&x=1", "blue-oficial");
+        call("GET", "/api/public/products?x=2", "catalog");
+        occupy("/api/public/config");
+
+        assertEquals("blue-oficial", call("GET", "/api/public/products?rates=blue,oficial", "new")
+                .getContentAsString());
+        assertEquals("catalog", call("GET", "/api/public/products?x=3&y=4", "new").getContentAsString());
+        assertEquals(503, call("GET", "/api/public/products?rates=oficial,blue", "new").getStatus());
+    }
+
+    @Test
+    void staleCache_ShouldEvictLeastRecentlyUsedOverByteLimit() throws Exception {
+        call("GET", "/api/public/products?rates=blue", "blue-v1..."); // 10 bytes
+        call("GET", "/api/public/products?rates=mep", "mep-v1...."); // 10 bytes
+        call("GET", "/api/public/products", "catalog-v1"); // 10 bytes: pasa el tope de 25
+        call("GET", "/api/public/products?rates=all", "x".repeat(26)); // más grande que el tope: no se guarda
+        occupy("/api/public/config");
+
+        assertEquals(503, call("GET", "/api/public/products?rates=blue", "new").getStatus());
+        assertEquals("mep-v1....", call("GET", "/api/public/products?rates=mep", "new").getContentAsString());
+        assertEquals("catalog-v1", call("GET", "/api/public/products", "new").getContentAsString());
+        assertEquals(503, call("GET", "/api/public/products?rates=all", "new").getStatus());
+    }
+
+    @Test
+    void staleCache_ShouldNotWrapOrReplaceAFreshCopy() throws Exception {
+        call("GET", "/api/public/products", "catalog-v1");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("GET", "/api/public/products"), response, (req, res) -> {
+            assertFalse(res instanceof ContentCachingResponseWrapper);
+            res.getOutputStream().write("catalog-v2".getBytes(StandardCharsets.UTF_8));
+        });
+        assertEquals("catalog-v2", response.getContentAsString());
+        occupy("/api/public/config");
+
+        // La copia tiene menos de retry-after (3s): sigue siendo la primera
+        assertEquals("catalog-v1", call("GET", "/api/public/products", "new").getContentAsString());
+    }
+
+    @Test
+    void adminRequest_ShouldNotBeStarvedByPublicTraffic() throws Exception {
+        occupy("/api/public/products");
+
+        MockHttpServletResponse response = call("POST", "/api/admin/import", "imported");
+
+        assertEquals(200, response.getStatus());
+        assertEquals("imported", response.getContentAsString());
+    }
+
+    @Test
+    void asyncRequest_ShouldKeepItsPermitUntilTheResponseCompletes() throws Exception {
+        MockHttpServletRequest export = request("GET", "/api/admin/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(503, call("POST", "/api/admin/import", "imported").getStatus());
+
+        export.getAsyncContext().complete();
+
+        assertEquals(200, call("POST", "/api/admin/import", "imported").getStatus());
+    }
+
+    /** Deja una request colgada dentro del filtro, ocupando el cupo de su grupo. */
+    private void occupy(String path) throws InterruptedException {
+        executor.submit(() -> {
+            filter.doFilter(request("GET", path), new MockHttpServletResponse(), (req, res) -> {
+                entered.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+    }
+
+    private MockHttpServletResponse call(String method, String path, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        });
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        String[] parts = uri.split("\\?", 2);
+        MockHttpServletRequest request = new MockHttpServletRequest(method, parts[0]);
+        request.setRequestURI(parts[0]);
+        if (parts.length > 1) {
+            request.setQueryString(parts[1]);
+            for (String param : parts[1].split("&")) {
+                String[] pair = param.split("=", 2);
+                request.addParameter(pair[0], URLDecoder.decode(pair[1], StandardCharsets.UTF_8));
+            }
+        }
+        return request;
+    }
+}
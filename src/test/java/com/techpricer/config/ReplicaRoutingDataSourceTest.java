@@ -0,0 +1,95 @@
+package com.techpricer.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Dos H2 en memoria hacen de primario y réplica; cada una tiene una tabla
+ * {@code node} con su propio nombre para saber a cuál fue cada consulta.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica));
+
+        DataSourceTransactionManager txManager = new DataSourceTransactionManager(routing);
+        jdbc = new JdbcTemplate(routing);
+        readWrite = new TransactionTemplate(txManager);
+        readOnly = new TransactionTemplate(txManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldGoToReplicaAndTheRestToPrimary() {
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+        assertEquals("primary", readWrite.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void pinToPrimary_ShouldOverrideReadOnlyRouting() {
+        assertEquals("primary",
+                ReplicaRoutingDataSource.pinToPrimary(() -> readOnly.execute(status -> currentNode())));
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    @Test
+    void readYourWritesFilter_ShouldPinOnlyTheClientThatWrote() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+
+        filter.doFilter(request("POST", "/api/admin/product", "admin-1"), new MockHttpServletResponse(),
+                (req, res) -> { });
+
+        assertEquals("primary", nodeSeenBy(filter, "admin-1"));
+        assertEquals("replica", nodeSeenBy(filter, "other-client"));
+        assertEquals("replica", readOnly.execute(status -> currentNode()));
+    }
+
+    private String nodeSeenBy(ReadYourWritesFilter filter, String clientId) throws Exception {
+        AtomicReference<String> node = new AtomicReference<>();
+        filter.doFilter(request("GET", "/api/public/products", clientId), new MockHttpServletResponse(),
+                (req, res) -> node.set(readOnly.execute(status -> currentNode())));
+        return node.get();
+    }
+
+    private String currentNode() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRequestURI(path);
+        request.addHeader(ReadYourWritesFilter.CLIENT_ID_HEADER, clientId);
+        return request;
+    }
+}
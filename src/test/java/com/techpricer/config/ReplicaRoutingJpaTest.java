@@ -0,0 +1,120 @@
+package com.techpricer.config;
+
+import com.techpricer.TechPricerApplication;
+import com.techpricer.model.Product;
+import com.techpricer.model.ProfitRule;
+import com.techpricer.repository.ProductRepository;
+import com.techpricer.repository.ProfitRuleRepository;
+import com.techpricer.service.ProductService;
+import com.techpricer.service.ProfitRuleService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * La aplicación completa (JPA + MVC) con dos H2 como primario y réplica: en
+ * una misma request, una lectura read-only seguida de una escritura tiene que
+ * leer de la réplica y escribir en el primario. Con open-in-view el
+ * EntityManager de la request se queda con la conexión de la primera
+ * sentencia y la escritura terminaría en la réplica.
+ */
+class ReplicaRoutingJpaTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:jpa-primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    private static final String REPLICA_URL = "jdbc:h2:mem:jpa-replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    private static ConfigurableApplicationContext node;
+    private static JdbcTemplate primary;
+    private static JdbcTemplate replica;
+
+    @BeforeAll
+    static void startNode() {
+        // Esquema de la réplica: una instancia sin réplica contra esa base
+        new SpringApplicationBuilder(TechPricerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + REPLICA_URL, "--spring.jpa.hibernate.ddl-auto=create")
+                .close();
+
+        node = new SpringApplicationBuilder(TechPricerApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean("readThenWrite",
+                        RouterFunction.class, () -> readThenWriteRoute(context)))
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + PRIMARY_URL,
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--app.datasource.replica.url=" + REPLICA_URL,
+                        "--app.datasource.replica.username=sa",
+                        "--app.datasource.replica.password=");
+        primary = new JdbcTemplate(node.getBean("primaryDataSource", DataSource.class));
+        replica = new JdbcTemplate(node.getBean("replicaDataSource", DataSource.class));
+    }
+
+    @AfterAll
+    static void stopNode() {
+        node.close();
+    }
+
+    @Test
+    void readOnlyReadThenWriteInSameRequest_ShouldReadReplicaAndWritePrimary() throws Exception {
+        // Solo el primario tiene la regla y un producto previo
+        ReplicaRoutingDataSource.pinToPrimary(() -> {
+            node.getBean(ProfitRuleRepository.class).save(ProfitRule.builder()
+                    .minPriceUsd(0.0).profitPercentage(15.0).build());
+            return node.getBean(ProductRepository.class).save(Product.builder()
+                    .name("Existente").category("Varios").originalPriceUsd(10.0).build());
+        });
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) node).build();
+
+        mockMvc.perform(post("/test/read-then-write"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productsRead").value(0))
+                .andExpect(jsonPath("$.markup").value(15.0));
+
+        assertEquals(2, countProducts(primary));
+        assertEquals(0, countProducts(replica));
+    }
+
+    /**
+     * Lectura read-only (réplica), índice de reglas (fijado al primario) y
+     * escritura (primario), todo en la misma request.
+     */
+    private static RouterFunction<ServerResponse> readThenWriteRoute(ApplicationContext context) {
+        return RouterFunctions.route()
+                .POST("/test/read-then-write", request -> {
+                    int productsRead = context.getBean(ProductRepository.class).findAll().size();
+                    Double markup = context.getBean(ProfitRuleService.class).getRuleIndex().resolve(100.0, null);
+                    context.getBean(ProductService.class).addManualProduct(Product.builder()
+                            .name("Nuevo").category("Varios").originalPriceUsd(20.0).build());
+                    Map<String, Object> body = new HashMap<>();
+                    body.put("productsRead", productsRead);
+                    body.put("markup", markup);
+                    return ServerResponse.ok().body(body);
+                })
+                .build();
+    }
+
+    private static int countProducts(JdbcTemplate jdbc) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM products", Integer.class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.techpricer.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.model.Product;
+import com.techpricer.service.DolarService;
+import com.techpricer.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class StartupWarmupTest {
+
+    private final MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+    private final MockEnvironment environment = new MockEnvironment().withProperty("local.server.port", "8080");
+
+    private final DolarService dolarService = mock(DolarService.class);
+    private final ProductService productService = mock(ProductService.class);
+
+    @Test
+    void warmUp_ShouldFetchTheRateOnceAndRepeatPricingInProcess() {
+        when(dolarService.getDolarVenta()).thenReturn(1220.0);
+        when(productService.getAllProductsWithCalculatedPrice(1220.0)).thenReturn(List.of(Product.builder()
+                .name("Mouse").originalPriceUsd(10.0).finalPriceArs(13420.0).build()));
+        StartupWarmup warmup = warmup(5, "/api/public/history/dollar", "/api/public/products",
+                Duration.ofSeconds(30));
+        MockRestServiceServer server = customizer.getServer();
+        server.expect(requestTo("http://localhost:8080/api/public/products")).andRespond(withSuccess());
+        server.expect(ExpectedCount.times(5), requestTo("http://localhost:8080/api/public/history/dollar"))
+                .andRespond(withSuccess());
+
+        warmup.warmUp();
+
+        server.verify();
+        verify(dolarService, times(1)).getDolarVenta();
+        verify(productService, times(5)).getAllProductsWithCalculatedPrice(1220.0);
+    }
+
+    @Test
+    void warmUp_ShouldSkipEverythingRateDependentWhenTheRateIsUnavailable() {
+        when(dolarService.getDolarVenta()).thenThrow(new DolarService.DollarRateUnavailableException("caída"));
+        StartupWarmup warmup = warmup(3, "/api/public/history/dollar", "/api/public/products",
+                Duration.ofSeconds(30));
+        MockRestServiceServer server = customizer.getServer();
+        server.expect(ExpectedCount.times(3), requestTo("http://localhost:8080/api/public/history/dollar"))
+                .andRespond(withSuccess());
+
+        warmup.warmUp();
+
+        server.verify();
+        verifyNoInteractions(productService);
+    }
+
+    @Test
+    void warmUp_ShouldSkipRemainingRatePathsAfterAFailureAndStillRepeatTheOthers() {
+        when(dolarService.getDolarVenta()).thenReturn(1220.0);
+        StartupWarmup warmup = warmup(3, "/api/public/history/dollar", "/api/public/products,/api/public/config",
+                Duration.ofSeconds(30));
+        MockRestServiceServer server = customizer.getServer();
+        server.expect(requestTo("http://localhost:8080/api/public/products"))
+                .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        server.expect(ExpectedCount.times(3), requestTo("http://localhost:8080/api/public/history/dollar"))
+                .andRespond(withSuccess());
+
+        warmup.warmUp();
+
+        server.verify();
+    }
+
+    @Test
+    void warmUp_ShouldStopAtTheDeadline() {
+        when(dolarService.getDolarVenta()).thenReturn(1220.0);
+        StartupWarmup warmup = warmup(20, "/api/public/history/dollar", "/api/public/products",
+                Duration.ofMillis(200));
+        MockRestServiceServer server = customizer.getServer();
+        server.expect(requestTo("http://localhost:8080/api/public/products")).andRespond(request -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return withSuccess().createResponse(request);
+        });
+
+        warmup.warmUp();
+
+        server.verify();
+    }
+
+    private StartupWarmup warmup(int iterations, String paths, String ratePaths, Duration timeout) {
+        return new StartupWarmup(true, environment, new RestTemplateBuilder(customizer), new SimpleMeterRegistry(),
+                dolarService, productService, new ObjectMapper(), iterations, paths, ratePaths, timeout);
+    }
+}
@@ -0,0 +1,139 @@
+package com.techpricer.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.service.CatalogExportService;
+import com.techpricer.service.DolarService;
+import com.techpricer.service.DolarService.DollarRateUnavailableException;
+import com.techpricer.service.DolarService.UnknownRateTypeException;
+import com.techpricer.service.GlobalConfigService;
+import com.techpricer.service.PricingSimulationService;
+import com.techpricer.service.ProductService;
+import com.techpricer.service.ProfitRuleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * GET /api/admin/export: la descarga y los errores viajan como
+ * StreamingResponseBody, así que cada respuesta se completa con un dispatch
+ * async.
+ */
+@ExtendWith(MockitoExtension.class)
+class AdminControllerExportTest {
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private GlobalConfigService globalConfigService;
+
+    @Mock
+    private DolarService dolarService;
+
+    @Mock
+    private ProfitRuleService profitRuleService;
+
+    @Mock
+    private PricingSimulationService pricingSimulationService;
+
+    @Mock
+    private CatalogExportService catalogExportService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private AdminController adminController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(adminController).build();
+    }
+
+    @Test
+    void exportCsv_ShouldStreamTheFileAsAnAttachment() throws Exception {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("oficial", 1000.0);
+        rates.put("blue", 1200.0);
+        when(dolarService.getRates("oficial,blue")).thenReturn(rates);
+        when(catalogExportService.export(eq(CatalogExportService.Format.CSV), eq(rates), any()))
+                .thenAnswer(invocation -> {
+                    OutputStream out = invocation.getArgument(2);
+                    out.write("id,nombre\r\n1,Mouse\r\n".getBytes(StandardCharsets.UTF_8));
+                    return 1L;
+                });
+
+        export(get("/api/admin/export").param("rates", "oficial,blue"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition",
+                        matchesPattern("attachment; filename=\"catalogo-\\d{4}-\\d{2}-\\d{2}\\.csv\"")))
+                .andExpect(content().string("id,nombre\r\n1,Mouse\r\n"));
+    }
+
+    @Test
+    void export_ShouldReturn400JsonForUnknownFormat() throws Exception {
+        export(get("/api/admin/export").param("format", "pdf"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("format debe ser csv o xlsx"));
+        verifyNoInteractions(dolarService, catalogExportService);
+    }
+
+    @Test
+    void export_ShouldReturn400JsonForUnknownRateType() throws Exception {
+        when(dolarService.getRates("cripto"))
+                .thenThrow(new UnknownRateTypeException("Tipo de cotización desconocido: 'cripto'"));
+
+        export(get("/api/admin/export").param("rates", "cripto"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("Tipo de cotización desconocido: 'cripto'"));
+        verifyNoInteractions(catalogExportService);
+    }
+
+    @Test
+    void export_ShouldReturn503JsonWhenDollarRateIsUnavailable() throws Exception {
+        when(dolarService.getDolarVenta())
+                .thenThrow(new DollarRateUnavailableException("No se pudo obtener la cotización del dólar."));
+
+        export(get("/api/admin/export").param("format", "xlsx"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().contentType("application/json"))
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.message").value("No se pudo obtener la cotización del dólar."));
+        verifyNoInteractions(catalogExportService);
+    }
+
+    private ResultActions export(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+}
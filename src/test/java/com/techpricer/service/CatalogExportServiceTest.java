@@ -0,0 +1,120 @@
+package com.techpricer.service;
+
+import com.techpricer.model.Product;
+import com.techpricer.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class CatalogExportServiceTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private CatalogExportService service;
+
+    @BeforeEach
+    void setUp() {
+        ProfitRuleService profitRuleService = mock(ProfitRuleService.class);
+        GlobalConfigService globalConfigService = mock(GlobalConfigService.class);
+        when(profitRuleService.getRuleIndex()).thenReturn(ProfitRuleIndex.empty());
+        when(profitRuleService.resolveProfit(anyDouble(), any(), any())).thenReturn(null);
+        when(globalConfigService.getGlobalMarkup()).thenReturn(10.0);
+        // Página chica para recorrer varias páginas por keyset
+        service = new CatalogExportService(productRepository, profitRuleService, globalConfigService,
+                new SimpleMeterRegistry(), 2);
+
+        productRepository.saveAll(List.of(
+                product("iPhone 15, 128GB", 1000.0, "► CELULARES 📱"),
+                product("Cable \"USB-C\"", 5.0, "Accesorios"),
+                product("Notebook", 20000.0, "Notebooks"),
+                product("Consultar", null, "Accesorios"),
+                product("Mouse", 12.5, "Accesorios")));
+    }
+
+    @Test
+    void exportCsv_ShouldWriteEveryRowWithPricesPerRate() throws Exception {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("oficial", 1000.0);
+        rates.put("blue", 1200.0);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, service.export(CatalogExportService.Format.CSV, rates, out));
+
+        byte[] bytes = out.toByteArray();
+        assertEquals((byte) 0xEF, bytes[0]);
+        List<String> lines = List.of(new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8)
+                .split("\r\n"));
+        assertEquals(6, lines.size());
+        assertEquals("id,nombre,categoria,precio_usd,precio_ars_oficial,precio_ars_blue", lines.get(0));
+        assertTrue(lines.get(1).endsWith(",\"iPhone 15, 128GB\",► CELULARES 📱,1000.00,1100000.00,1320000.00"));
+        assertTrue(lines.get(2).contains(",\"Cable \"\"USB-C\"\"\",Accesorios,5.00,5500.00,6600.00"));
+        // Sin notación científica aunque supere los diez millones
+        assertTrue(lines.get(3).endsWith(",20000.00,22000000.00,26400000.00"));
+        assertTrue(lines.get(4).endsWith(",Consultar,Accesorios,,,"));
+    }
+
+    @Test
+    void exportCsv_ShouldNeutralizeCellsThatExcelWouldRunAsFormulas() throws Exception {
+        productRepository.deleteAll();
+        productRepository.saveAll(List.of(
+                product("=HYPERLINK(\"http://x\",\"Click\")", 1.0, "+Accesorios"),
+                product("-5% descuento", 1.0, "@SUMA"),
+                product("\tTab", 1.0, "Normal")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.export(CatalogExportService.Format.CSV, Map.of("oficial", 1000.0), out);
+
+        List<String> lines = List.of(new String(out.toByteArray(), 3, out.size() - 3, StandardCharsets.UTF_8)
+                .split("\r\n"));
+        assertTrue(lines.get(1).contains(",\"'=HYPERLINK(\"\"http://x\"\",\"\"Click\"\")\",'+Accesorios,"));
+        assertTrue(lines.get(2).contains(",'-5% descuento,'@SUMA,"));
+        assertTrue(lines.get(3).contains(",'\tTab,Normal,"));
+    }
+
+    @Test
+    void exportXlsx_ShouldWriteAValidWorkbookZip() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(5, service.export(CatalogExportService.Format.XLSX, Map.of("oficial", 1000.0), out));
+
+        List<String> entries = new ArrayList<>();
+        String sheet = null;
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                entries.add(entry.getName());
+                if (entry.getName().equals("xl/worksheets/sheet1.xml")) {
+                    sheet = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        assertTrue(entries.containsAll(List.of("[Content_Types].xml", "_rels/.rels", "xl/workbook.xml",
+                "xl/_rels/workbook.xml.rels", "xl/worksheets/sheet1.xml")));
+        assertNotNull(sheet);
+        assertEquals(6, sheet.split("<row>", -1).length - 1);
+        assertTrue(sheet.contains("Cable &quot;USB-C&quot;"));
+        assertTrue(sheet.contains("<c><v>1100000.00</v></c>"));
+        assertTrue(sheet.endsWith("</sheetData></worksheet>"));
+    }
+
+    private static Product product(String name, Double priceUsd, String category) {
+        return Product.builder().name(name).originalPriceUsd(priceUsd).category(category).build();
+    }
+}
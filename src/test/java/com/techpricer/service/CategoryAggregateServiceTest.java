@@ -0,0 +1,84 @@
+package com.techpricer.service;
+
+import com.techpricer.model.Product;
+import com.techpricer.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryAggregateServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProfitRuleService profitRuleService;
+
+    @Mock
+    private GlobalConfigService globalConfigService;
+
+    @InjectMocks
+    private CategoryAggregateService service;
+
+    @BeforeEach
+    void setUp() {
+        when(profitRuleService.getAllRules()).thenReturn(Collections.emptyList());
+        when(globalConfigService.getGlobalMarkup()).thenReturn(10.0);
+    }
+
+    @Test
+    void aggregates_ShouldTrackCountMinMaxAvgIncrementally() {
+        service.rebuild(List.of(
+                product(1L, 100.0, "CELULARES"),
+                product(2L, 300.0, "CELULARES"),
+                product(3L, 20.0, "Accesorios")));
+
+        CategoryAggregateService.CategoryAggregate phones = find(service.getAggregates(1000.0), "CELULARES");
+        assertEquals(2, phones.productCount());
+        assertEquals(100.0, phones.minPriceUsd());
+        assertEquals(300.0, phones.maxPriceUsd());
+        assertEquals(200.0, phones.avgPriceUsd());
+        // 100 * 1.10 * 1000
+        assertEquals(110000.0, phones.minPriceArs());
+
+        service.removeAll(List.of(2L));
+        service.upsertAll(List.of(product(4L, 50.0, "CELULARES")));
+
+        phones = find(service.getAggregates(1000.0), "CELULARES");
+        assertEquals(2, phones.productCount());
+        assertEquals(50.0, phones.minPriceUsd());
+        assertEquals(100.0, phones.maxPriceUsd());
+    }
+
+    @Test
+    void aggregates_ShouldDropEmptyCategoriesAndFollowMarkupChanges() {
+        service.rebuild(List.of(product(1L, 100.0, "CELULARES"), product(2L, 20.0, "Accesorios")));
+        service.removeAll(List.of(2L));
+
+        assertEquals(1, service.getAggregates(1000.0).size());
+
+        when(globalConfigService.getGlobalMarkup()).thenReturn(20.0);
+        service.onPricingChanged(new PricingChangedEvent("config"));
+
+        assertEquals(120000.0, find(service.getAggregates(1000.0), "CELULARES").maxPriceArs());
+    }
+
+    private static CategoryAggregateService.CategoryAggregate find(
+            List<CategoryAggregateService.CategoryAggregate> aggregates, String category) {
+        return aggregates.stream().filter(a -> a.category().equals(category)).findFirst().orElseThrow();
+    }
+
+    private static Product product(Long id, Double priceUsd, String category) {
+        return Product.builder().id(id).name("P" + id).originalPriceUsd(priceUsd).category(category).build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.techpricer.service;
+
+import com.techpricer.model.DollarRate;
+import com.techpricer.repository.DollarRateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class DolarServiceTest {
+
+    private static final String API_URL = "http://dolar.test/v1/dolares/oficial";
+    private static final String RATES_URL = "http://dolar.test/v1/dolares";
+
+    private SimpleMeterRegistry meterRegistry;
+    private MockRestServiceServer server;
+    private DolarService dolarService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        dolarService = new DolarService(new RestTemplateBuilder(customizer), meterRegistry,
+                mock(DollarRateRepository.class), mock(ApplicationEventPublisher.class), "local",
+                Duration.ofMinutes(10), Duration.ofSeconds(1), Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(dolarService, "apiUrl", API_URL);
+        ReflectionTestUtils.setField(dolarService, "ratesUrl", RATES_URL);
+        ReflectionTestUtils.setField(dolarService, "rateTypes", List.of("oficial", "blue", "bolsa"));
+        ReflectionTestUtils.setField(dolarService, "ratesCacheTtl", Duration.ofMinutes(1));
+        server = customizer.getServer();
+    }
+
+    @Test
+    void getDolarVenta_ShouldRecordSuccessOutcome() {
+        server.expect(requestTo(API_URL)).andRespond(withSuccess(
+                "{\"compra\": 1180.0, \"venta\": 1220.0, \"fechaActualizacion\": \"2026-10-19T10:00:00Z\"}",
+                MediaType.APPLICATION_JSON));
+
+        assertEquals(1220.0, dolarService.getDolarVenta());
+        assertEquals(1, meterRegistry.get("techpricer.dolar.fetch").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void getDolarVenta_ShouldRecordErrorOutcome() {
+        server.expect(requestTo(API_URL)).andRespond(withServerError());
+
+        assertThrows(DolarService.DollarRateUnavailableException.class, () -> dolarService.getDolarVenta());
+        assertEquals(1, meterRegistry.get("techpricer.dolar.fetch").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void getDolarVenta_InLeaseModeShouldUseFreshSharedRateWithoutCallingApi() {
+        DollarRateRepository repository = mock(DollarRateRepository.class);
+        when(repository.findAll()).thenReturn(List.of(shared(DolarService.RATE_TYPE, 1250.0)));
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        DolarService leaseService = leaseService(customizer, repository, mock(ApplicationEventPublisher.class));
+
+        assertEquals(1250.0, leaseService.getDolarVenta());
+        assertEquals(1250.0, leaseService.getDolarVenta());
+        verify(repository, times(1)).findAll();
+        customizer.getServer().verify(); // ninguna llamada a la API
+    }
+
+    @Test
+    void getRates_InLeaseModeShouldUseSharedRowsWithoutCallingApiOrPublishing() {
+        DollarRateRepository repository = mock(DollarRateRepository.class);
+        ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+        when(repository.findAll()).thenReturn(List.of(shared("blue", 1420.0), shared(DolarService.RATE_TYPE, 1250.0),
+                shared("cripto", 1460.0)));
+        MockServerRestTemplateCustomizer customizer = new MockServerRestTemplateCustomizer();
+        DolarService leaseService = leaseService(customizer, repository, eventPublisher);
+
+        Map<String, Double> rates = leaseService.getRates();
+
+        // Solo los tipos configurados, en el orden configurado; el oficial es el mismo que getDolarVenta
+        assertEquals(Map.of("oficial", 1250.0, "blue", 1420.0), rates);
+        assertEquals(List.of("oficial", "blue"), List.copyOf(rates.keySet()));
+        assertEquals(leaseService.getDolarVenta(), leaseService.getRates("oficial").get("oficial"));
+        customizer.getServer().verify();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void getRates_ShouldFetchConfiguredTypesTogetherAndCacheThem() {
+        server.expect(ExpectedCount.once(), requestTo(RATES_URL)).andRespond(withSuccess("""
+                [{"casa": "oficial", "nombre": "Oficial", "compra": 1180.0, "venta": 1220.0},
+                 {"casa": "blue", "nombre": "Blue", "compra": 1400.0, "venta": 1420.0},
+                 {"casa": "cripto", "nombre": "Cripto", "compra": 1450.0, "venta": 1460.0},
+                 {"casa": "bolsa", "nombre": "Bolsa", "compra": 1390.0, "venta": 1395.5}]
+                """, MediaType.APPLICATION_JSON));
+
+        Map<String, Double> rates = dolarService.getRates();
+        dolarService.getRates();
+
+        assertEquals(List.of("oficial", "blue", "bolsa"), List.copyOf(rates.keySet()));
+        assertEquals(1395.5, rates.get("bolsa"));
+        server.verify();
+        assertEquals(1.0, meterRegistry.counter(ProfitRuleService.CACHE_REQUESTS_METRIC,
+                "cache", "rates", "result", "miss").count());
+        assertEquals(1.0, meterRegistry.counter(ProfitRuleService.CACHE_REQUESTS_METRIC,
+                "cache", "rates", "result", "hit").count());
+    }
+
+    private DolarService leaseService(MockServerRestTemplateCustomizer customizer, DollarRateRepository repository,
+            ApplicationEventPublisher eventPublisher) {
+        DolarService leaseService = new DolarService(new RestTemplateBuilder(customizer), meterRegistry, repository,
+                eventPublisher, "lease", Duration.ofMinutes(10), Duration.ofSeconds(1), Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(leaseService, "rateTypes", List.of("oficial", "blue", "bolsa"));
+        return leaseService;
+    }
+
+    private static DollarRate shared(String type, double venta) {
+        return DollarRate.builder().rateType(type).venta(venta).fetchedAt(Instant.now()).version(3L).build();
+    }
+}
@@ -0,0 +1,229 @@
+package com.techpricer.service;
+
+import com.techpricer.model.DollarRate;
+import com.techpricer.repository.DollarRateRepository;
+import com.techpricer.repository.RateLeaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dos "nodos" (dos schedulers con distinto nodeId) contra la misma base H2.
+ * Sin la transacción del test: cada sentencia del lease corre y commitea en
+ * su propia transacción, como en nodos separados. El tiempo lo maneja un
+ * reloj de prueba.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DollarRateLeaseSchedulerTest {
+
+    @Autowired
+    private RateLeaseRepository leaseRepository;
+
+    @Autowired
+    private DollarRateRepository dollarRateRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final DolarService dolarServiceA = mock(DolarService.class);
+    private final DolarService dolarServiceB = mock(DolarService.class);
+    private final TestClock clock = new TestClock(Instant.parse("2026-10-19T12:00:00Z"));
+
+    @AfterEach
+    void cleanUp() {
+        leaseRepository.deleteAll();
+        dollarRateRepository.deleteAll();
+    }
+
+    @Test
+    void heartbeat_OnlyLeaseHolderShouldCallApiAndOthersReadSharedRow() {
+        when(dolarServiceA.fetchAllFromApi()).thenReturn(Map.of("oficial", 1220.0, "blue", 1410.0));
+        DollarRateLeaseScheduler nodeA = node("node-a", dolarServiceA, Duration.ofSeconds(15));
+        DollarRateLeaseScheduler nodeB = node("node-b", dolarServiceB, Duration.ofSeconds(15));
+
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        nodeA.heartbeat();
+
+        assertTrue(nodeA.isLeader());
+        assertFalse(nodeB.isLeader());
+        verify(dolarServiceA, times(1)).fetchAllFromApi();
+        verify(dolarServiceB, never()).fetchAllFromApi();
+        verify(dolarServiceB).acceptSharedRates(argThat(rates -> rates.size() == 2
+                && rates.stream().anyMatch(r -> r.getRateType().equals("blue") && r.getVenta() == 1410.0)));
+
+        DollarRate shared = dollarRateRepository.findById(DolarService.RATE_TYPE).orElseThrow();
+        assertEquals(1220.0, shared.getVenta());
+        assertEquals("node-a", shared.getUpdatedBy());
+        assertEquals(0L, shared.getVersion());
+        assertEquals(1410.0, dollarRateRepository.findById("blue").orElseThrow().getVenta());
+    }
+
+    @Test
+    void heartbeat_ShouldFailOverWhenHolderStopsRenewing() {
+        DollarRateLeaseScheduler nodeA = node("node-a", dolarServiceA, Duration.ofSeconds(15));
+        DollarRateLeaseScheduler nodeB = node("node-b", dolarServiceB, Duration.ofSeconds(15));
+
+        nodeA.heartbeat();
+        nodeB.heartbeat();
+        assertTrue(nodeA.isLeader());
+        assertFalse(nodeB.isLeader());
+
+        clock.advance(Duration.ofSeconds(10)); // todavía vigente
+        nodeB.heartbeat();
+        assertFalse(nodeB.isLeader());
+
+        clock.advance(Duration.ofSeconds(6)); // node-a "murió": no renovó y venció
+        nodeB.heartbeat();
+        nodeA.heartbeat();
+
+        assertTrue(nodeB.isLeader());
+        assertFalse(nodeA.isLeader());
+    }
+
+    @Test
+    void releaseLease_ShouldLetAnotherNodeTakeOverImmediately() {
+        DollarRateLeaseScheduler nodeA = node("node-a", dolarServiceA, Duration.ofMinutes(1));
+        DollarRateLeaseScheduler nodeB = node("node-b", dolarServiceB, Duration.ofMinutes(1));
+
+        nodeA.heartbeat();
+        nodeA.releaseLease();
+        clock.advance(Duration.ofMillis(1));
+        nodeB.heartbeat();
+
+        assertTrue(nodeB.isLeader());
+    }
+
+    @Test
+    void heartbeat_ShouldNotPublishIfTheLeaseWasLostDuringTheFetch() {
+        DollarRateLeaseScheduler nodeA = node("node-a", dolarServiceA, Duration.ofSeconds(15));
+        when(dolarServiceA.fetchAllFromApi()).thenAnswer(invocation -> {
+            // La llamada a la API tardó más que el ttl y node-b tomó el lease
+            clock.advance(Duration.ofSeconds(16));
+            leaseRepository.tryAcquire(DollarRateLeaseScheduler.LEASE_NAME, "node-b",
+                    clock.instant().plusSeconds(15), clock.instant());
+            return Map.of("oficial", 1220.0, "blue", 1410.0);
+        });
+
+        nodeA.heartbeat();
+
+        assertFalse(nodeA.isLeader());
+        assertEquals(0, dollarRateRepository.count());
+        verify(dolarServiceA).acceptSharedRates(argThat(rates -> rates.isEmpty()));
+    }
+
+    @Test
+    void heartbeat_ShouldKeepTheOtherNodesRowsWhenTheyWereWrittenDuringTheFetch() {
+        dollarRateRepository.save(DollarRate.builder().rateType("oficial").venta(1100.0)
+                .fetchedAt(clock.instant().minus(Duration.ofHours(1))).updatedBy("node-old").build());
+        DollarRateLeaseScheduler nodeA = node("node-a", dolarServiceA, Duration.ofSeconds(15));
+        when(dolarServiceA.fetchAllFromApi()).thenAnswer(invocation -> {
+            // El dueño anterior termina de publicar antes que node-a
+            DollarRate oficial = dollarRateRepository.findById("oficial").orElseThrow();
+            oficial.setVenta(1200.0);
+            oficial.setUpdatedBy("node-old");
+            dollarRateRepository.save(oficial);
+            dollarRateRepository.save(DollarRate.builder().rateType("blue").venta(1400.0)
+                    .fetchedAt(clock.instant()).updatedBy("node-old").build());
+            return Map.of("oficial", 1220.0, "blue", 1410.0);
+        });
+
+        nodeA.heartbeat();
+
+        assertTrue(nodeA.isLeader());
+        assertEquals(1200.0, dollarRateRepository.findById("oficial").orElseThrow().getVenta());
+        assertEquals(1400.0, dollarRateRepository.findById("blue").orElseThrow().getVenta());
+        verify(dolarServiceA).acceptSharedRates(argThat(rates -> rates.size() == 2
+                && rates.stream().allMatch(r -> r.getUpdatedBy().equals("node-old"))));
+    }
+
+    @Test
+    void concurrentHeartbeats_ShouldElectExactlyOneLeader() throws Exception {
+        when(dolarServiceA.fetchAllFromApi()).thenReturn(Map.of("oficial", 1220.0));
+        when(dolarServiceB.fetchAllFromApi()).thenReturn(Map.of("oficial", 1220.0));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                DollarRateLeaseScheduler nodeA = node("node-a-" + round, dolarServiceA, Duration.ofSeconds(15));
+                DollarRateLeaseScheduler nodeB = node("node-b-" + round, dolarServiceB, Duration.ofSeconds(15));
+                // Primera vuelta: compiten por crear la fila; después, por tomar el lease vencido
+                heartbeatTogether(executor, nodeA, nodeB);
+
+                assertTrue(nodeA.isLeader() ^ nodeB.isLeader(), "ronda " + round);
+                clock.advance(Duration.ofSeconds(16));
+            }
+            assertEquals(1, dollarRateRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void heartbeatTogether(ExecutorService executor, DollarRateLeaseScheduler... nodes)
+            throws Exception {
+        CyclicBarrier start = new CyclicBarrier(nodes.length);
+        List<Callable<Void>> tasks = Arrays.stream(nodes).<Callable<Void>>map(node -> () -> {
+            start.await();
+            node.heartbeat();
+            return null;
+        }).toList();
+        for (Future<Void> result : executor.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+
+    private DollarRateLeaseScheduler node(String nodeId, DolarService dolarService, Duration ttl) {
+        return new DollarRateLeaseScheduler(leaseRepository, dollarRateRepository, dolarService,
+                transactionManager, nodeId, ttl, Duration.ofMinutes(1), clock);
+    }
+
+    /** Reloj que solo avanza cuando el test lo pide. */
+    private static final class TestClock extends Clock {
+        private volatile Instant now;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
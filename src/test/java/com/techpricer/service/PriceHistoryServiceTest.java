@@ -0,0 +1,178 @@
+package com.techpricer.service;
+
+import com.techpricer.model.DollarRateHistory;
+import com.techpricer.model.Product;
+import com.techpricer.model.ProductPriceHistory;
+import com.techpricer.repository.DollarRateHistoryRepository;
+import com.techpricer.repository.ProductPriceHistoryRepository;
+import com.techpricer.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+class PriceHistoryServiceTest {
+
+    @Autowired
+    private DollarRateHistoryRepository rateHistoryRepository;
+
+    @Autowired
+    private ProductPriceHistoryRepository priceHistoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private PriceHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PriceHistoryService(rateHistoryRepository, priceHistoryRepository, productRepository, 30);
+    }
+
+    @Test
+    void recordPrices_ShouldOnlyWriteChangedPrices() {
+        assertEquals(2, service.recordPrices(List.of(product("iPhone 15", 899.0), product("Galaxy S24", 799.0))));
+        assertEquals(1, service.recordPrices(List.of(product("iPhone 15", 899.0), product("Galaxy S24", 749.99))));
+
+        assertEquals(3, priceHistoryRepository.count());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<Double> values = service.productSeries("Galaxy S24", today, today).points().stream()
+                .map(PriceHistoryService.HistoryPoint::value).toList();
+        assertEquals(List.of(799.0, 749.99), values);
+    }
+
+    @Test
+    void recordPrices_ShouldCountOnlyFirstProductWithSameName() {
+        Product inPhones = product("Cargador 20W", 25.0);
+        Product inAccessories = Product.builder().name("Cargador 20W").category("Accesorios")
+                .originalPriceUsd(30.0).build();
+
+        assertEquals(1, service.recordPrices(List.of(inPhones, inAccessories)));
+        assertEquals(0, service.recordPrices(List.of(inPhones, inAccessories)));
+
+        assertEquals(1, priceHistoryRepository.count());
+    }
+
+    @Test
+    void recordPrices_ShouldReloadLastPricesAfterFailedSave() {
+        ProductPriceHistoryRepository failingRepository = mock(ProductPriceHistoryRepository.class);
+        when(failingRepository.findLatestPerProduct()).thenReturn(List.of());
+        when(failingRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("rollback"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        PriceHistoryService failing = new PriceHistoryService(rateHistoryRepository, failingRepository,
+                productRepository, 30);
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> failing.recordPrices(List.of(product("iPhone 15", 899.0))));
+        // El cambio no quedó registrado: se vuelve a intentar
+        assertEquals(1, failing.recordPrices(List.of(product("iPhone 15", 899.0))));
+        verify(failingRepository, times(2)).findLatestPerProduct();
+    }
+
+    @Test
+    void onDollarRateFetched_ShouldIgnoreUnchangedRate() {
+        Instant now = Instant.now();
+        service.onDollarRateFetched(new DollarRateFetchedEvent("oficial", 1220.0, now));
+        service.onDollarRateFetched(new DollarRateFetchedEvent("oficial", 1220.0, now.plusSeconds(60)));
+        service.onDollarRateFetched(new DollarRateFetchedEvent("oficial", 1225.5, now.plusSeconds(120)));
+
+        assertEquals(2, rateHistoryRepository.count());
+    }
+
+    @Test
+    void onDollarRateFetched_ConcurrentEventsWithNewRateShouldWriteOneRow() throws Exception {
+        DollarRateHistoryRepository slowRepository = mock(DollarRateHistoryRepository.class);
+        when(slowRepository.findTopByRateTypeOrderByObservedAtDesc("oficial")).thenReturn(Optional.empty());
+        when(slowRepository.save(any())).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return invocation.getArgument(0);
+        });
+        PriceHistoryService concurrent = new PriceHistoryService(slowRepository, priceHistoryRepository,
+                productRepository, 30);
+
+        int threads = 8;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = Collections.nCopies(threads, () -> {
+                start.await();
+                concurrent.onDollarRateFetched(new DollarRateFetchedEvent("oficial", 1220.0, Instant.now()));
+                return null;
+            });
+            for (Future<Void> result : executor.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(slowRepository, times(1)).save(any());
+        verify(slowRepository, times(1)).findTopByRateTypeOrderByObservedAtDesc("oficial");
+    }
+
+    @Test
+    void rateSeries_ShouldStartWithValueInForceAtRangeStart() {
+        LocalDate day = LocalDate.of(2026, 10, 1);
+        rateHistoryRepository.save(rate(day.minusDays(3), 1100.0));
+        rateHistoryRepository.save(rate(day.plusDays(1), 1150.0));
+
+        PriceHistoryService.HistorySeries series = service.rateSeries("oficial", day, day.plusDays(5));
+
+        assertEquals(2, series.points().size());
+        assertEquals(1100.0, series.points().get(0).value());
+        assertEquals(day.atStartOfDay(ZoneOffset.UTC).toInstant(), series.points().get(0).t());
+        assertEquals(1150.0, series.points().get(1).value());
+    }
+
+    @Test
+    void downsample_ShouldKeepLastObservationPerDayForOldData() {
+        LocalDate old = LocalDate.now(ZoneOffset.UTC).minusDays(60);
+        priceHistoryRepository.saveAll(List.of(price(old, 10, 100.0), price(old, 12, 110.0), price(old, 18, 105.0)));
+        LocalDate recent = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        priceHistoryRepository.saveAll(List.of(price(recent, 10, 100.0), price(recent, 12, 110.0)));
+
+        service.downsample();
+
+        List<ProductPriceHistory> left = priceHistoryRepository.findAll();
+        assertEquals(3, left.size());
+        assertTrue(left.stream().anyMatch(h -> h.getPriceUsdCents() == 10500));
+        assertFalse(left.stream().anyMatch(h -> h.getPriceUsdCents() == 11000
+                && h.getBucketDay() == old.toEpochDay()));
+    }
+
+    private static Product product(String name, double priceUsd) {
+        return Product.builder().name(name).category("Celulares").originalPriceUsd(priceUsd).build();
+    }
+
+    private static DollarRateHistory rate(LocalDate day, double venta) {
+        Instant at = day.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        return DollarRateHistory.builder().rateType("oficial").ventaCents(Math.round(venta * 100)).observedAt(at)
+                .bucketDay((int) day.toEpochDay()).build();
+    }
+
+    private static ProductPriceHistory price(LocalDate day, int hour, double priceUsd) {
+        Instant at = day.atTime(hour, 0).toInstant(ZoneOffset.UTC);
+        return ProductPriceHistory.builder().productName("Monitor LG 27").priceUsdCents(Math.round(priceUsd * 100))
+                .observedAt(at).bucketDay((int) day.toEpochDay()).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.techpricer.service;
+
+import com.techpricer.model.Product;
+import com.techpricer.model.ProfitRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PricingSimulationServiceTest {
+
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ProfitRuleService profitRuleService;
+
+    @Mock
+    private GlobalConfigService globalConfigService;
+
+    @InjectMocks
+    private PricingSimulationService service;
+
+    @Test
+    void simulate_ShouldCompareCandidateRulesAgainstCurrentPricing() {
+        when(searchIndex.snapshot()).thenReturn(List.of(
+                product(1L, 100.0, "CELULARES"),
+                product(2L, 10.0, "Accesorios")));
+        when(profitRuleService.getRuleIndex()).thenReturn(ProfitRuleIndex.empty());
+        when(globalConfigService.getGlobalMarkup()).thenReturn(10.0);
+
+        // Candidato: accesorios al 50%, resto sigue con el global 10%
+        ProfitRule accessories = ProfitRule.builder().category("Accesorios").profitPercentage(50.0).build();
+        PricingSimulationService.SimulationResult result = service.simulate(
+                new PricingSimulationService.SimulationRequest(List.of(accessories), null, null, 5), 1000.0);
+
+        assertEquals(2, result.productCount());
+        assertEquals(1, result.increasedCount());
+        // actual: 110000 + 11000; simulado: 110000 + 15000
+        assertEquals(121000.0, result.currentRevenueArs());
+        assertEquals(125000.0, result.simulatedRevenueArs());
+        assertEquals(4000.0, result.marginDeltaArs());
+        assertEquals(1, result.topMovers().size());
+        assertEquals(2L, result.topMovers().get(0).id());
+        assertEquals(1, result.distribution().stream().filter(b -> b.range().equals(">= 20%")).findFirst()
+                .orElseThrow().count());
+    }
+
+    @Test
+    void simulate_ShouldApplyHypotheticalDollarRate() {
+        when(searchIndex.snapshot()).thenReturn(List.of(product(1L, 100.0, "CELULARES")));
+        when(profitRuleService.getRuleIndex()).thenReturn(ProfitRuleIndex.empty());
+        when(globalConfigService.getGlobalMarkup()).thenReturn(0.0);
+
+        PricingSimulationService.SimulationResult result = service.simulate(
+                new PricingSimulationService.SimulationRequest(null, null, 1100.0, null), 1000.0);
+
+        assertEquals(110000.0, result.simulatedRevenueArs());
+        assertEquals(10.0, result.revenueDeltaPct());
+        assertEquals(0.0, result.marginDeltaArs(), "Sin markup el margen sigue siendo 0");
+    }
+
+    private static Product product(Long id, Double priceUsd, String category) {
+        return Product.builder().id(id).name("P" + id).originalPriceUsd(priceUsd).category(category).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.techpricer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techpricer.model.Product;
+import com.techpricer.repository.GlobalConfigRepository;
+import com.techpricer.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Operaciones masivas contra H2: las sentencias DELETE / UPDATE de
+ * ProductRepository (incluido el round(..., 2) en JPQL) y los eventos que
+ * publica ProductService.
+ */
+@DataJpaTest
+class ProductBulkOperationsTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private GlobalConfigRepository configRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private ApplicationEventPublisher eventPublisher;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        productService = new ProductService(productRepository, configRepository, mock(ProfitRuleService.class),
+                new ObjectMapper(), mock(ProductSearchIndex.class), eventPublisher, new SimpleMeterRegistry());
+
+        productRepository.saveAll(List.of(
+                product("iPhone 15", 899.99, "Celulares"),
+                product("Galaxy S24", 19.99, "Celulares"),
+                product("Consultar", null, "Celulares"),
+                product("Cable USB-C", 5.0, "Accesorios")));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void deleteProductsByCategory_ShouldDeleteOnlyThatCategory() {
+        assertEquals(3, productService.deleteProductsByCategory("Celulares"));
+
+        assertEquals(List.of("Cable USB-C"), names());
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void deleteProductsByCategory_ShouldNotPublishWhenNothingMatches() {
+        assertEquals(0, productService.deleteProductsByCategory("Notebooks"));
+
+        assertEquals(4, productRepository.count());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void adjustPrices_ShouldScaleAndRoundOnlyThatCategory() {
+        // El producto sin precio no cuenta como actualizado
+        assertEquals(2, productService.adjustPrices("Celulares", 15));
+        entityManager.clear();
+
+        assertEquals(1034.99, price("iPhone 15"));  // 899.99 * 1.15 = 1034.9885
+        assertEquals(22.99, price("Galaxy S24"));   // 19.99 * 1.15 = 22.9885
+        assertNull(price("Consultar"));
+        assertEquals(5.0, price("Cable USB-C"));
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void adjustPrices_WithoutCategory_ShouldScaleWholeCatalog() {
+        assertEquals(3, productService.adjustPrices(null, -10));
+        entityManager.clear();
+
+        assertEquals(809.99, price("iPhone 15"));   // 899.99 * 0.9 = 809.991
+        assertEquals(17.99, price("Galaxy S24"));   // 19.99 * 0.9 = 17.991
+        assertEquals(4.5, price("Cable USB-C"));
+    }
+
+    private List<String> names() {
+        return productRepository.findAll().stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .map(Product::getName)
+                .toList();
+    }
+
+    private Double price(String name) {
+        return productRepository.findAll().stream()
+                .filter(p -> p.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getOriginalPriceUsd();
+    }
+
+    private static Product product(String name, Double priceUsd, String category) {
+        return Product.builder().name(name).originalPriceUsd(priceUsd).category(category).build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.techpricer.service;
+
+import com.techpricer.model.Product;
+import com.techpricer.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class));
+        index.rebuild(List.of(
+                product(1L, "IPHONE 15 PRO 256 GB", "CELULARES"),
+                product(2L, "IPHONE 15 128 GB", "CELULARES"),
+                product(3L, "CARGADOR APPLE 20W USB-C", "Accesorios"),
+                product(4L, "Auriculares Bluetooth 🔥", "Audio y Música")));
+    }
+
+    @Test
+    void search_ShouldMatchPartialTermsAndRankExactNameFirst() {
+        ProductSearchIndex.SearchResult result = index.search("iphone 15 pro", 0, 10);
+
+        assertEquals(1, result.total());
+        assertEquals(1L, result.products().get(0).getId());
+
+        ProductSearchIndex.SearchResult partial = index.search("phon", 0, 10);
+        assertEquals(2, partial.total());
+        // A igual puntaje gana el nombre más corto
+        assertEquals(2L, partial.products().get(0).getId());
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsEmojiAndCase() {
+        assertEquals(4L, index.search("MUSICA", 0, 10).products().get(0).getId());
+        assertEquals(4L, index.search("auriculares", 0, 10).products().get(0).getId());
+        assertEquals("auriculares bluetooth", ProductSearchIndex.normalize("Auriculares  Bluetooth 🔥"));
+    }
+
+    @Test
+    void search_ShouldPaginate() {
+        ProductSearchIndex.SearchResult page = index.search("gb", 1, 1);
+
+        assertEquals(2, page.total());
+        assertEquals(1, page.products().size());
+    }
+
+    @Test
+    void search_PagesShouldMatchTheFullRankingAndTotal() {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            // Nombres de distinto largo y puntaje: "gb" exacto, como prefijo o solo en la categoría
+            String name = id % 3 == 0 ? "Pendrive " + id + " GB" : id % 3 == 1 ? "Memoria GBX " + id : "Disco " + id;
+            products.add(product(id, name, id % 3 == 2 ? "GB Storage" : "Almacenamiento"));
+        }
+        index.rebuild(products);
+
+        List<Long> all = index.search("gb", 0, 500).products().stream().map(Product::getId).toList();
+        assertEquals(200, all.size());
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; page < 14; page++) {
+            ProductSearchIndex.SearchResult result = index.search("gb", page, 15);
+            assertEquals(200, result.total());
+            result.products().forEach(p -> paged.add(p.getId()));
+        }
+        assertEquals(all, paged);
+        assertEquals(3L, all.get(0)); // exacto en el nombre y el nombre más corto
+    }
+
+    @Test
+    void incrementalUpdates_ShouldBeVisibleToSearch() {
+        index.removeAll(List.of(3L));
+        assertEquals(0, index.search("cargador", 0, 10).total());
+
+        index.upsertAll(List.of(product(5L, "Cargador Samsung 25W", "Accesorios")));
+        assertEquals(5L, index.search("cargador", 0, 10).products().get(0).getId());
+        assertEquals(4, index.size());
+    }
+
+    private static Product product(Long id, String name, String category) {
+        return Product.builder().id(id).name(name).originalPriceUsd(10.0).category(category).build();
+    }
+}
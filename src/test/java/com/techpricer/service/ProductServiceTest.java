@@ -5,15 +5,20 @@ import com.techpricer.model.GlobalConfig;
 import com.techpricer.model.Product;
 import com.techpricer.repository.GlobalConfigRepository;
 import com.techpricer.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,6 +39,15 @@ class ProductServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private ProductSearchIndex searchIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private ProductService productService;
 
@@ -50,7 +64,7 @@ class ProductServiceTest {
 
         productService.importProducts(input);
 
-        verify(productRepository).deleteAll();
+        verify(productRepository).deleteAllInBatch();
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
         verify(productRepository).saveAll(captor.capture());
@@ -104,7 +118,7 @@ class ProductServiceTest {
 
         productService.importProducts(input);
 
-        verify(productRepository).deleteAll();
+        verify(productRepository).deleteAllInBatch();
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
         verify(productRepository).saveAll(captor.capture());
@@ -132,7 +146,7 @@ class ProductServiceTest {
 
         productService.importProducts(input);
 
-        verify(productRepository).deleteAll();
+        verify(productRepository).deleteAllInBatch();
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
         verify(productRepository).saveAll(captor.capture());
@@ -157,7 +171,7 @@ class ProductServiceTest {
 
         productService.importProducts(input);
 
-        verify(productRepository).deleteAll();
+        verify(productRepository).deleteAllInBatch();
         @SuppressWarnings("unchecked")
         ArgumentCaptor<List<Product>> captor = ArgumentCaptor.forClass(List.class);
         verify(productRepository).saveAll(captor.capture());
@@ -236,8 +250,9 @@ class ProductServiceTest {
         when(configRepository.findById(1L)).thenReturn(Optional.of(config));
 
         // Sin reglas → usa el margen global (20.0)
-        when(profitRuleService.getAllRules()).thenReturn(Collections.emptyList());
-        when(profitRuleService.resolveProfit(any(), any())).thenReturn(null);
+        ProfitRuleIndex ruleIndex = ProfitRuleIndex.compile(Collections.emptyList());
+        when(profitRuleService.getRuleIndex()).thenReturn(ruleIndex);
+        when(profitRuleService.resolveProfit(100.0, null, ruleIndex)).thenReturn(null);
 
         // El dólar ahora se pasa como parámetro (1000.0)
         List<Product> result = productService.getAllProductsWithCalculatedPrice(1000.0);
@@ -246,4 +261,87 @@ class ProductServiceTest {
         // 100 * 1000 * 1.20 = 120000
         assertEquals(120000.0, result.get(0).getFinalPriceArs());
     }
+
+    @Test
+    void getAllProductsWithCalculatedPrices_ShouldPriceEveryRateInOnePass() {
+        Product p = Product.builder().name("Test").originalPriceUsd(100.0).build();
+        when(productRepository.findAll()).thenReturn(List.of(p));
+        when(configRepository.findById(1L)).thenReturn(Optional.of(GlobalConfig.builder().profitPercentage(20.0)
+                .build()));
+        ProfitRuleIndex ruleIndex = ProfitRuleIndex.empty();
+        when(profitRuleService.getRuleIndex()).thenReturn(ruleIndex);
+        when(profitRuleService.resolveProfit(100.0, null, ruleIndex)).thenReturn(null);
+
+        Map<String, Double> rates = new LinkedHashMap<>();
+        rates.put("oficial", 1000.0);
+        rates.put("blue", 1200.0);
+        List<Product> result = productService.getAllProductsWithCalculatedPrices(rates, "oficial");
+
+        assertEquals(120000.0, result.get(0).getFinalPriceArs());
+        assertEquals(Map.of("oficial", 120000.0, "blue", 144000.0), result.get(0).getPricesArs());
+        verify(productRepository, times(1)).findAll();
+        verify(profitRuleService, times(1)).resolveProfit(100.0, null, ruleIndex);
+    }
+
+    @Test
+    void deleteProducts_ShouldDeleteInChunkedSetBasedStatements() {
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(productRepository.deleteByIdIn(any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        int deleted = productService.deleteProducts(ids);
+
+        assertEquals(2500, deleted);
+        verify(productRepository, times(3)).deleteByIdIn(any());
+        verify(productRepository, never()).deleteAllById(any());
+    }
+
+    @Test
+    void importProducts_ShouldRecordStageTimers() {
+        productService.importProducts("► CELULARES\n▪️IPHONE 15 128 GB - $ 625.0");
+
+        for (String stage : List.of("unwrap", "parse", "persist")) {
+            assertEquals(1, meterRegistry.get("techpricer.import.stage").tag("stage", stage).timer().count(),
+                    "stage " + stage);
+        }
+    }
+
+    @Test
+    void importProducts_ShouldProfileStagesAndLinePaths() {
+        String input = "► CELULARES\n" +
+                "▪️IPHONE 15 - $ 900 a$ 910\n" +
+                "ORANGE ($900) / BLUE ($910)\n" +
+                "▪️IPHONE 16 - $ 1000 (S/CARG)\n" +
+                "BLUE / GREEN\n" +
+                "▪️IPHONE 17 - $ 1200 BLACK / WHITE\n" +
+                "▪️MOTOROLA G05 - $ 150\n" +
+                "\n" +
+                "Simple Product, 100, Otros\n" +
+                "texto suelto del proveedor";
+        ImportProfiler profiler = ImportProfiler.enabled(3);
+
+        productService.importProducts(input, profiler);
+        ImportProfiler.Report report = profiler.report();
+
+        assertEquals(10, report.lines());
+        assertEquals(8, report.products());
+        assertEquals(Map.of("category", 1, "product", 3, "formatA", 1, "formatB", 1, "formatC", 1,
+                "csvFallback", 1, "rejected", 1, "blank", 1), report.paths());
+        assertEquals(List.of("unwrap", "parse", "persist"), List.copyOf(report.stagesMs().keySet()));
+        assertEquals(3, report.slowestLines().size());
+        assertTrue(report.slowestLines().get(0).micros() >= report.slowestLines().get(2).micros());
+        // El perfilado no reemplaza los timers de Micrometer
+        assertEquals(1, meterRegistry.get("techpricer.import.stage").tag("stage", "parse").timer().count());
+    }
+
+    @Test
+    void getAllProductsWithCalculatedPrice_ShouldRecordLoadAndPricingTimers() {
+        when(productRepository.findAll()).thenReturn(List.of());
+        when(configRepository.findById(1L)).thenReturn(Optional.of(GlobalConfig.builder().build()));
+        when(profitRuleService.getRuleIndex()).thenReturn(ProfitRuleIndex.empty());
+
+        productService.getAllProductsWithCalculatedPrice(1000.0);
+
+        assertEquals(1, meterRegistry.get("techpricer.catalog.load").timer().count());
+        assertEquals(1, meterRegistry.get("techpricer.catalog.pricing").timer().count());
+    }
 }
@@ -0,0 +1,74 @@
+package com.techpricer.service;
+
+import com.techpricer.model.ProfitRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProfitRuleIndexTest {
+
+    @Test
+    void resolve_ShouldApplyInclusiveRangesAndFallBackToNull() {
+        ProfitRuleIndex index = ProfitRuleIndex.compile(List.of(
+                rule(null, 0.0, 500.0, 15.0),
+                rule(null, 501.0, 1000.0, 12.0)));
+
+        assertEquals(15.0, index.resolve(0.0, "CELULARES"));
+        assertEquals(15.0, index.resolve(500.0, "CELULARES"));
+        assertNull(index.resolve(500.5, "CELULARES"), "Hueco entre reglas → margen global");
+        assertEquals(12.0, index.resolve(1000.0, "CELULARES"));
+        assertNull(index.resolve(1000.01, "CELULARES"));
+    }
+
+    @Test
+    void resolve_ShouldPreferCategoryRuleThenGeneralRule() {
+        ProfitRuleIndex index = ProfitRuleIndex.compile(List.of(
+                rule(null, 0.0, null, 10.0),
+                rule("Accesorios", 0.0, 100.0, 40.0)));
+
+        assertEquals(40.0, index.resolve(50.0, "► ACCESORIOS 🎧"));
+        assertEquals(10.0, index.resolve(150.0, "Accesorios"), "Fuera del rango de la categoría → general");
+        assertEquals(10.0, index.resolve(50.0, "CELULARES"));
+        assertEquals(10.0, index.resolve(50.0, null));
+    }
+
+    @Test
+    void resolve_ShouldMatchLinearScanForOverlappingRules() {
+        Random random = new Random(42);
+        List<ProfitRule> rules = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double min = random.nextInt(2000);
+            Double max = random.nextInt(5) == 0 ? null : min + random.nextInt(500);
+            rules.add(rule(null, random.nextInt(10) == 0 ? null : min, max, (double) i));
+        }
+        rules.sort(Comparator.comparing(ProfitRule::getMinPriceUsd,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        ProfitRuleIndex index = ProfitRuleIndex.compile(rules);
+
+        for (int i = 0; i < 5000; i++) {
+            double price = random.nextInt(300000) / 100.0;
+            assertEquals(linearScan(price, rules), index.resolve(price, null), "price=" + price);
+        }
+    }
+
+    private static Double linearScan(double price, List<ProfitRule> rules) {
+        for (ProfitRule rule : rules) {
+            boolean aboveMin = rule.getMinPriceUsd() == null || price >= rule.getMinPriceUsd();
+            boolean belowMax = rule.getMaxPriceUsd() == null || price <= rule.getMaxPriceUsd();
+            if (aboveMin && belowMax) {
+                return rule.getProfitPercentage();
+            }
+        }
+        return null;
+    }
+
+    private static ProfitRule rule(String category, Double min, Double max, Double profit) {
+        return ProfitRule.builder().category(category).minPriceUsd(min).maxPriceUsd(max).profitPercentage(profit)
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.techpricer.service;
+
+import com.techpricer.model.ProfitRule;
+import com.techpricer.repository.ProfitRuleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProfitRuleServiceTest {
+
+    @Mock
+    private ProfitRuleRepository profitRuleRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private ProfitRuleService profitRuleService;
+
+    @Test
+    void getRuleIndex_ShouldCompileOnceAndRecordCacheHitsAndMisses() {
+        when(profitRuleRepository.findAllByOrderByMinPriceUsdAsc()).thenReturn(List.of(
+                ProfitRule.builder().minPriceUsd(0.0).maxPriceUsd(500.0).profitPercentage(15.0).build()));
+
+        profitRuleService.getRuleIndex();
+        profitRuleService.getRuleIndex();
+        profitRuleService.onPricingChanged(new PricingChangedEvent("rules"));
+        ProfitRuleIndex index = profitRuleService.getRuleIndex();
+
+        assertEquals(15.0, index.resolve(100.0, null));
+        verify(profitRuleRepository, times(2)).findAllByOrderByMinPriceUsdAsc();
+        assertEquals(2, counter("miss"));
+        assertEquals(1, counter("hit"));
+    }
+
+    @Test
+    void getRuleIndex_ShouldNotCacheIndexCompiledBeforeConcurrentInvalidation() {
+        ProfitRule oldRule = ProfitRule.builder().minPriceUsd(0.0).profitPercentage(15.0).build();
+        ProfitRule newRule = ProfitRule.builder().minPriceUsd(0.0).profitPercentage(20.0).build();
+        // Mientras se compila con las reglas viejas llega la invalidación de un cambio
+        when(profitRuleRepository.findAllByOrderByMinPriceUsdAsc())
+                .thenAnswer(invocation -> {
+                    profitRuleService.onPricingChanged(new PricingChangedEvent("rules"));
+                    return List.of(oldRule);
+                })
+                .thenReturn(List.of(newRule));
+
+        assertEquals(15.0, profitRuleService.getRuleIndex().resolve(100.0, null));
+        assertEquals(20.0, profitRuleService.getRuleIndex().resolve(100.0, null));
+        assertEquals(20.0, profitRuleService.getRuleIndex().resolve(100.0, null));
+        verify(profitRuleRepository, times(2)).findAllByOrderByMinPriceUsdAsc();
+    }
+
+    @Test
+    void cachedRuleCount_ShouldNotCompileOrCountAsCacheRequest() {
+        when(profitRuleRepository.findAllByOrderByMinPriceUsdAsc()).thenReturn(List.of(
+                ProfitRule.builder().minPriceUsd(0.0).profitPercentage(15.0).build(),
+                ProfitRule.builder().minPriceUsd(500.0).profitPercentage(10.0).build()));
+
+        assertNull(profitRuleService.cachedRuleCount());
+        verifyNoInteractions(profitRuleRepository);
+
+        profitRuleService.getRuleIndex();
+        assertEquals(2, profitRuleService.cachedRuleCount());
+        profitRuleService.onPricingChanged(new PricingChangedEvent("rules"));
+        assertNull(profitRuleService.cachedRuleCount());
+
+        verify(profitRuleRepository, times(1)).findAllByOrderByMinPriceUsdAsc();
+        assertEquals(1, counter("miss"));
+        assertNull(meterRegistry.find(ProfitRuleService.CACHE_REQUESTS_METRIC).tag("result", "hit").counter());
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get(ProfitRuleService.CACHE_REQUESTS_METRIC)
+                .tag("cache", "rules").tag("result", result).counter().count();
+    }
+}